@@ -1,3 +1,31 @@
 package world;
 
-public record ChunkCoord(int x, int y, int z) {}
\ No newline at end of file
+public record ChunkCoord(int x, int y, int z) {
+
+    /**
+     * Compacte des coordonnées de chunk dans un long : 26 bits pour x et z, 12 bits pour y.
+     */
+    public static long pack(int x, int y, int z) {
+        return ((long) (x & 0x3FFFFFF) << 38) | ((long) (z & 0x3FFFFFF) << 12) | (y & 0xFFF);
+    }
+
+    public static int unpackX(long key) {
+        return (int) (key >> 38);
+    }
+
+    public static int unpackY(long key) {
+        return (int) (key << 52 >> 52);
+    }
+
+    public static int unpackZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    public static ChunkCoord unpack(long key) {
+        return new ChunkCoord(unpackX(key), unpackY(key), unpackZ(key));
+    }
+
+    public long pack() {
+        return pack(x, y, z);
+    }
+}
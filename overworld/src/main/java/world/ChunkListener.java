@@ -0,0 +1,15 @@
+package world;
+
+import world.chunk.Chunk;
+
+/**
+ * Prévenu par {@link WorldManager} quand un chunk est chargé, modifié ou déchargé.
+ * Les appels viennent du thread qui écrit dans le monde.
+ */
+public interface ChunkListener {
+    default void onChunkLoaded(Chunk chunk) {}
+
+    default void onChunkChanged(Chunk chunk) {}
+
+    default void onChunkUnloaded(Chunk chunk) {}
+}
@@ -0,0 +1,186 @@
+package world;
+
+import world.chunk.Chunk;
+import world.util.LongObjectMap;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Charge et décharge les colonnes de chunks autour de la caméra.
+ * <p>
+ * Les colonnes dans le rayon de vue sont générées de la plus proche à la plus lointaine,
+ * en arrière-plan sur le pool de génération du monde, quelques-unes à la fois. Une colonne
+ * n'est déchargée qu'au-delà du rayon de vue plus une marge (hystérésis), pour qu'une caméra
+ * qui va et vient sur une frontière ne recharge pas sans cesse les mêmes chunks. Le nombre de
+ * colonnes en mémoire reste borné par la surface du disque de déchargement.
+ * <p>
+ * {@link #update} doit être appelée par le thread qui écrit dans le monde.
+ */
+public class ChunkStreamingService {
+    private static final int SIZE = Chunk.SIZE;
+
+    private enum ColumnState { PENDING, LOADED }
+
+    private final WorldManager world;
+    private final int viewDistance;
+    private final int unloadDistance;
+    private final int maxPending;
+
+    // Décalages (dx, dz) du disque de vue, triés du plus proche au plus lointain
+    private final int[] offsets;
+    private final LongObjectMap<ColumnState> columns = new LongObjectMap<>();
+    private final ConcurrentLinkedQueue<WorldManager.PreparedColumn> generated = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<Long> failed = new ConcurrentLinkedQueue<>();
+
+    private int centerX = Integer.MIN_VALUE;
+    private int centerZ = Integer.MIN_VALUE;
+    private int loadCursor;
+    private int pending;
+    private long[] unloadScratch = new long[64];
+
+    public ChunkStreamingService(WorldManager world, int viewDistance, int hysteresis) {
+        this(world, viewDistance, hysteresis, Math.max(2, world.getGenerationPool().getParallelism() * 2));
+    }
+
+    public ChunkStreamingService(WorldManager world, int viewDistance, int hysteresis, int maxPending) {
+        this.world = world;
+        this.viewDistance = viewDistance;
+        this.unloadDistance = viewDistance + hysteresis;
+        this.maxPending = maxPending;
+        this.offsets = sortedOffsets(viewDistance);
+    }
+
+    /**
+     * Suit la caméra (coordonnées monde) : décharge ce qui est trop loin, ajoute au monde
+     * les colonnes générées et lance la génération des suivantes.
+     */
+    public void update(float cameraX, float cameraZ) {
+        int cx = Math.floorDiv((int) Math.floor(cameraX), SIZE);
+        int cz = Math.floorDiv((int) Math.floor(cameraZ), SIZE);
+
+        if (cx != centerX || cz != centerZ) {
+            centerX = cx;
+            centerZ = cz;
+            loadCursor = 0;
+            unloadFarColumns();
+        }
+
+        insertGenerated();
+        scheduleLoads();
+    }
+
+    private void unloadFarColumns() {
+        int[] count = {0};
+        columns.forEach((key, state) -> {
+            if (state == ColumnState.LOADED && !withinRadius(key, unloadDistance)) {
+                if (count[0] == unloadScratch.length) {
+                    unloadScratch = Arrays.copyOf(unloadScratch, count[0] * 2);
+                }
+                unloadScratch[count[0]++] = key;
+            }
+        });
+
+        for (int i = 0; i < count[0]; i++) {
+            long key = unloadScratch[i];
+            int x = ChunkCoord.unpackX(key), z = ChunkCoord.unpackZ(key);
+            for (int y = 0; y < WorldManager.HEIGHT_IN_CHUNKS; y++) {
+                world.removeChunk(x, y, z);
+            }
+            columns.remove(key);
+        }
+    }
+
+    private void insertGenerated() {
+        // Une colonne en échec sera redemandée au prochain changement de chunk de la caméra
+        Long failedKey;
+        while ((failedKey = failed.poll()) != null) {
+            pending--;
+            columns.remove(failedKey);
+        }
+
+        WorldManager.PreparedColumn column;
+        while ((column = generated.poll()) != null) {
+            pending--;
+            Chunk first = column.sections()[0];
+            long key = columnKey(first.getPosition().x(), first.getPosition().z());
+
+            // La caméra s'est éloignée pendant la génération : on jette la colonne
+            if (!withinRadius(key, unloadDistance)) {
+                columns.remove(key);
+                continue;
+            }
+
+            world.addColumn(column);
+            columns.put(key, ColumnState.LOADED);
+        }
+    }
+
+    private void scheduleLoads() {
+        while (pending < maxPending && loadCursor < offsets.length) {
+            int x = centerX + offsets[loadCursor++];
+            int z = centerZ + offsets[loadCursor++];
+            long key = columnKey(x, z);
+            if (columns.get(key) != null) continue;
+
+            columns.put(key, ColumnState.PENDING);
+            pending++;
+            CompletableFuture.runAsync(() -> {
+                try {
+                    // Décodage, cartes de hauteur et sources de lumière ici, pas sur le thread du monde
+                    generated.add(world.prepareColumn(x, z));
+                } catch (RuntimeException e) {
+                    System.err.println("Erreur de chargement de la colonne " + x + "," + z + ": " + e.getMessage());
+                    failed.add(key);
+                }
+            }, world.getGenerationPool());
+        }
+    }
+
+    private boolean withinRadius(long key, int radius) {
+        int dx = ChunkCoord.unpackX(key) - centerX;
+        int dz = ChunkCoord.unpackZ(key) - centerZ;
+        return dx * dx + dz * dz <= radius * radius;
+    }
+
+    public int getLoadedColumnCount() {
+        return columns.size() - pending;
+    }
+
+    public int getPendingCount() {
+        return pending;
+    }
+
+    public int getViewDistance() {
+        return viewDistance;
+    }
+
+    private static long columnKey(int x, int z) {
+        return ChunkCoord.pack(x, 0, z);
+    }
+
+    // Toutes les colonnes du disque de rayon r, à plat (dx, dz, dx, dz...), triées par distance
+    private static int[] sortedOffsets(int radius) {
+        int side = radius * 2 + 1;
+        long[] packed = new long[side * side];
+        int n = 0;
+
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dz = -radius; dz <= radius; dz++) {
+                int d2 = dx * dx + dz * dz;
+                if (d2 > radius * radius) continue;
+                // Distance dans les bits de poids fort : le tri numérique donne l'ordre voulu
+                packed[n++] = ((long) d2 << 32) | ((dx + radius) << 16) | (dz + radius);
+            }
+        }
+        Arrays.sort(packed, 0, n);
+
+        int[] offsets = new int[n * 2];
+        for (int i = 0; i < n; i++) {
+            offsets[i * 2] = (int) ((packed[i] >>> 16) & 0xFFFF) - radius;
+            offsets[i * 2 + 1] = (int) (packed[i] & 0xFFFF) - radius;
+        }
+        return offsets;
+    }
+}
@@ -0,0 +1,141 @@
+package world;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import world.block.Face;
+import world.chunk.Chunk;
+
+/**
+ * Sélection de blocs par lancer de rayon dans la grille de voxels.
+ * <p>
+ * {@link #pick} transforme une position écran (coordonnées normalisées -1..1) en rayon grâce
+ * à l'inverse de projection × vue : avec la projection orthographique, tous les rayons sont
+ * parallèles et vont du plan proche au plan lointain. Le rayon est d'abord coupé à la hauteur
+ * du monde, puis parcouru case par case (DDA d'Amanatides et Woo) ; le chunk courant n'est
+ * recherché que lorsque le rayon change de chunk.
+ * <p>
+ * Aucune allocation par appel : les matrices et vecteurs de travail sont gardés dans l'instance
+ * et le résultat est écrit dans un {@link Hit} fourni. Une instance par thread.
+ */
+public class VoxelRaycaster {
+    private static final int WORLD_TOP = WorldManager.HEIGHT_IN_CHUNKS * Chunk.SIZE;
+
+    private final Matrix4f inverseViewProjection = new Matrix4f();
+    private final Vector3f near = new Vector3f();
+    private final Vector3f far = new Vector3f();
+
+    /**
+     * Bloc touché : coordonnées monde, face par laquelle le rayon est entré et distance.
+     * La face est null si le rayon part de l'intérieur du bloc.
+     */
+    public static final class Hit {
+        private int x, y, z;
+        private int blockId;
+        private Face face;
+        private float distance;
+
+        public int getX() { return x; }
+        public int getY() { return y; }
+        public int getZ() { return z; }
+        public int getBlockId() { return blockId; }
+        public Face getFace() { return face; }
+        public float getDistance() { return distance; }
+    }
+
+    /**
+     * Lance un rayon depuis un point de l'écran. Renvoie vrai et remplit {@code out} si un bloc est touché.
+     */
+    public boolean pick(Matrix4f projection, Matrix4f view, float ndcX, float ndcY, WorldManager world, Hit out) {
+        projection.mul(view, inverseViewProjection).invert();
+        inverseViewProjection.transformProject(ndcX, ndcY, -1.0f, near);
+        inverseViewProjection.transformProject(ndcX, ndcY, 1.0f, far);
+
+        far.sub(near);
+        float length = far.length();
+        if (length == 0.0f) return false;
+
+        far.div(length);
+        return raycast(world, near.x, near.y, near.z, far.x, far.y, far.z, length, out);
+    }
+
+    /**
+     * Parcourt la grille depuis (ox, oy, oz) selon la direction unitaire (dx, dy, dz), sur au plus
+     * {@code maxDistance}. Les blocs non chargés comptent comme de l'air.
+     */
+    public boolean raycast(WorldManager world, float ox, float oy, float oz,
+                           float dx, float dy, float dz, float maxDistance, Hit out) {
+        // Coupe le rayon à la tranche [0, WORLD_TOP) en y : rien à trouver au-dessus ou en dessous
+        float t = 0.0f;
+        float tEnd = maxDistance;
+        Face face = null;
+        if (dy != 0.0f) {
+            float tBottom = -oy / dy;
+            float tTop = (WORLD_TOP - oy) / dy;
+            float tEnter = Math.min(tBottom, tTop);
+            if (tEnter > t) {
+                t = tEnter;
+                face = dy < 0 ? Face.UP : Face.DOWN;
+            }
+            tEnd = Math.min(tEnd, Math.max(tBottom, tTop));
+        } else if (oy < 0 || oy >= WORLD_TOP) {
+            return false;
+        }
+        if (t > tEnd) return false;
+
+        float px = ox + dx * t, py = oy + dy * t, pz = oz + dz * t;
+        int x = (int) Math.floor(px);
+        int y = Math.clamp((int) Math.floor(py), 0, WORLD_TOP - 1);
+        int z = (int) Math.floor(pz);
+
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        float deltaX = dx == 0 ? Float.POSITIVE_INFINITY : Math.abs(1.0f / dx);
+        float deltaY = dy == 0 ? Float.POSITIVE_INFINITY : Math.abs(1.0f / dy);
+        float deltaZ = dz == 0 ? Float.POSITIVE_INFINITY : Math.abs(1.0f / dz);
+        // Distance jusqu'à la prochaine limite de case sur chaque axe
+        float nextX = t + (dx > 0 ? x + 1 - px : px - x) * deltaX;
+        float nextY = t + (dy > 0 ? y + 1 - py : py - y) * deltaY;
+        float nextZ = t + (dz > 0 ? z + 1 - pz : pz - z) * deltaZ;
+
+        Chunk chunk = null;
+        int chunkX = Integer.MIN_VALUE, chunkY = Integer.MIN_VALUE, chunkZ = Integer.MIN_VALUE;
+
+        while (t <= tEnd) {
+            if ((x >> 4) != chunkX || (y >> 4) != chunkY || (z >> 4) != chunkZ) {
+                chunkX = x >> 4;
+                chunkY = y >> 4;
+                chunkZ = z >> 4;
+                chunk = world.getChunk(chunkX, chunkY, chunkZ);
+            }
+
+            int id = chunk == null ? 0 : chunk.getBlock(x & 0xF, y & 0xF, z & 0xF);
+            if (id != 0) {
+                out.x = x;
+                out.y = y;
+                out.z = z;
+                out.blockId = id;
+                out.face = face;
+                out.distance = t;
+                return true;
+            }
+
+            if (nextX < nextY && nextX < nextZ) {
+                x += stepX;
+                t = nextX;
+                nextX += deltaX;
+                face = stepX > 0 ? Face.WEST : Face.EAST;
+            } else if (nextY < nextZ) {
+                y += stepY;
+                t = nextY;
+                nextY += deltaY;
+                face = stepY > 0 ? Face.DOWN : Face.UP;
+                if (y < 0 || y >= WORLD_TOP) return false;
+            } else {
+                z += stepZ;
+                t = nextZ;
+                nextZ += deltaZ;
+                face = stepZ > 0 ? Face.NORTH : Face.SOUTH;
+            }
+        }
+        return false;
+    }
+}
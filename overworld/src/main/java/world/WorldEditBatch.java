@@ -0,0 +1,202 @@
+package world;
+
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+import world.light.LightEngine;
+import world.storage.EditJournal;
+import world.util.LongObjectMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lot de modifications de blocs appliqué d'un coup.
+ * <p>
+ * Les opérations (bloc seul, remplissage, remplacement) sont rangées par section au moment
+ * de l'ajout. {@link #commit()} applique ensuite chaque section une seule fois, avec les
+ * opérations en masse de {@link BlockStorage}, puis prévient les écouteurs une seule fois par
+ * chunk touché (et par voisin dont la bordure a changé) : un grand remplissage ne déclenche
+ * pas des milliers de remaillages.
+ * <p>
+ * Comme {@link WorldManager#setBlock}, les chunks non chargés sont ignorés. À utiliser depuis
+ * le thread qui écrit dans le monde.
+ */
+public class WorldEditBatch {
+    private final WorldManager world;
+    private final List<Operation> operations = new ArrayList<>();
+    // Index des opérations qui touchent chaque section, dans l'ordre d'ajout
+    private final LongObjectMap<OperationList> sections = new LongObjectMap<>();
+
+    // Tampons réutilisés par commit()
+    private final short[] before = new short[BlockStorage.VOLUME];
+    private final short[] after = new short[BlockStorage.VOLUME];
+    private final LongObjectMap<Chunk> changed = new LongObjectMap<>();
+    // Colonnes dont les cartes de hauteur sont à recalculer, clé ChunkCoord.pack(x, 0, z)
+    private final LongObjectMap<Boolean> changedColumns = new LongObjectMap<>();
+
+    private record Operation(int x0, int y0, int z0, int x1, int y1, int z1, int from, int id) {
+        static final int ANY = -1;
+    }
+
+    public WorldEditBatch(WorldManager world) {
+        this.world = world;
+    }
+
+    public WorldEditBatch set(int x, int y, int z, int id) {
+        return add(new Operation(x, y, z, x, y, z, Operation.ANY, id));
+    }
+
+    // Bornes monde incluses, dans n'importe quel ordre
+    public WorldEditBatch fill(int x0, int y0, int z0, int x1, int y1, int z1, int id) {
+        return add(new Operation(
+                Math.min(x0, x1), Math.min(y0, y1), Math.min(z0, z1),
+                Math.max(x0, x1), Math.max(y0, y1), Math.max(z0, z1),
+                Operation.ANY, id));
+    }
+
+    public WorldEditBatch replace(int x0, int y0, int z0, int x1, int y1, int z1, int from, int to) {
+        return add(new Operation(
+                Math.min(x0, x1), Math.min(y0, y1), Math.min(z0, z1),
+                Math.max(x0, x1), Math.max(y0, y1), Math.max(z0, z1),
+                from, to));
+    }
+
+    private WorldEditBatch add(Operation operation) {
+        int index = operations.size();
+        operations.add(operation);
+
+        for (int cy = operation.y0() >> 4; cy <= operation.y1() >> 4; cy++) {
+            for (int cz = operation.z0() >> 4; cz <= operation.z1() >> 4; cz++) {
+                for (int cx = operation.x0() >> 4; cx <= operation.x1() >> 4; cx++) {
+                    long key = ChunkCoord.pack(cx, cy, cz);
+                    OperationList list = sections.get(key);
+                    if (list == null) {
+                        list = new OperationList();
+                        sections.put(key, list);
+                    }
+                    list.add(index);
+                }
+            }
+        }
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    /**
+     * Applique le lot section par section et renvoie le nombre de blocs modifiés. Le lot est vidé.
+     */
+    public int commit() {
+        int[] total = {0};
+        sections.forEach((key, list) -> total[0] += applySection(key, list));
+        // Une seule propagation de la lumière pour tout le lot
+        world.getLightEngine().propagate(changed);
+
+        changedColumns.forEach((key, unused) -> world.rebuildHeightmap(ChunkCoord.unpackX(key), ChunkCoord.unpackZ(key)));
+        changedColumns.clear();
+        changed.forEachValue(world::fireChanged);
+        changed.clear();
+        operations.clear();
+        sections.clear();
+        return total[0];
+    }
+
+    // Applique les opérations d'une section, journalise les cases modifiées et note les chunks à prévenir
+    private int applySection(long key, OperationList list) {
+        Chunk chunk = world.getLoadedChunk().get(key);
+        if (chunk == null) return 0;
+
+        BlockStorage blocks = chunk.getBlocks();
+        blocks.copyTo(before);
+        apply(chunk, blocks, list);
+        blocks.copyTo(after);
+
+        EditJournal journal = world.getJournal();
+        LightEngine light = world.getLightEngine();
+        ChunkCoord p = chunk.getPosition();
+        int baseX = p.x() << 4, baseY = p.y() << 4, baseZ = p.z() << 4;
+        int border = 0;
+        int modified = 0;
+        for (int i = 0; i < BlockStorage.VOLUME; i++) {
+            if (before[i] == after[i]) continue;
+
+            modified++;
+            border |= borderMask(i);
+            light.onBlockChanged(baseX + (i & 0xF), baseY + (i >>> 8), baseZ + ((i >>> 4) & 0xF),
+                    before[i] & 0xFFFF, after[i] & 0xFFFF);
+            if (journal != null) {
+                journal.append(p.x(), p.y(), p.z(), i, before[i] & 0xFFFF, after[i] & 0xFFFF, world.getTick());
+            }
+        }
+        if (modified == 0) return 0;
+
+        chunk.markSaveDirty();
+        changed.put(key, chunk);
+        changedColumns.put(ChunkCoord.pack(p.x(), 0, p.z()), Boolean.TRUE);
+        addNeighbours(p, border);
+        return modified;
+    }
+
+    private void apply(Chunk chunk, BlockStorage blocks, OperationList list) {
+        int baseX = chunk.getPosition().x() << 4;
+        int baseY = chunk.getPosition().y() << 4;
+        int baseZ = chunk.getPosition().z() << 4;
+
+        for (int i = 0; i < list.size; i++) {
+            Operation op = operations.get(list.indices[i]);
+            // Boîte de l'opération ramenée aux coordonnées locales de la section
+            int x0 = Math.max(op.x0() - baseX, 0), x1 = Math.min(op.x1() - baseX, Chunk.SIZE - 1);
+            int y0 = Math.max(op.y0() - baseY, 0), y1 = Math.min(op.y1() - baseY, Chunk.SIZE - 1);
+            int z0 = Math.max(op.z0() - baseZ, 0), z1 = Math.min(op.z1() - baseZ, Chunk.SIZE - 1);
+
+            if (op.from() == Operation.ANY) {
+                blocks.fillBox(x0, y0, z0, x1, y1, z1, op.id());
+            } else {
+                blocks.replaceBox(x0, y0, z0, x1, y1, z1, op.from(), op.id());
+            }
+        }
+    }
+
+    /**
+     * Un bit par section voisine qui lit la case modifiée, d'indice (dx + 1) * 9 + (dy + 1) * 3 + (dz + 1) :
+     * les faces, mais aussi les arêtes et les coins pour l'occlusion ambiante.
+     */
+    private static int borderMask(int index) {
+        int x = index & 0xF, y = index >>> 8, z = (index >>> 4) & 0xF;
+        int minX = x == 0 ? -1 : 0, maxX = x == 15 ? 1 : 0;
+        int minY = y == 0 ? -1 : 0, maxY = y == 15 ? 1 : 0;
+        int minZ = z == 0 ? -1 : 0, maxZ = z == 15 ? 1 : 0;
+        int mask = 0;
+        for (int dx = minX; dx <= maxX; dx++) {
+            for (int dy = minY; dy <= maxY; dy++) {
+                for (int dz = minZ; dz <= maxZ; dz++) {
+                    mask |= 1 << ((dx + 1) * 9 + (dy + 1) * 3 + (dz + 1));
+                }
+            }
+        }
+        return mask & ~(1 << 13); // la section elle-même
+    }
+
+    private void addNeighbours(ChunkCoord p, int border) {
+        for (int bit = 0; bit < 27; bit++) {
+            if ((border & (1 << bit)) == 0) continue;
+
+            long key = ChunkCoord.pack(p.x() + bit / 9 - 1, p.y() + bit / 3 % 3 - 1, p.z() + bit % 3 - 1);
+            Chunk chunk = world.getLoadedChunk().get(key);
+            if (chunk != null) changed.put(key, chunk);
+        }
+    }
+
+    private static final class OperationList {
+        int[] indices = new int[4];
+        int size;
+
+        void add(int index) {
+            if (size == indices.length) indices = Arrays.copyOf(indices, size * 2);
+            indices[size++] = index;
+        }
+    }
+}
@@ -1,32 +1,368 @@
 package world;
+import world.block.BlockRegistry;
+import world.chunk.BlockStorage;
 import world.chunk.Chunk;
+import world.chunk.ColumnHeightmap;
+import world.gen.ChunkGenerator;
+import world.gen.NoiseTerrainGenerator;
+import world.light.LightEngine;
+import world.storage.ChunkCodec;
+import world.storage.EditJournal;
+import world.storage.RegionStorage;
+import world.util.LongObjectMap;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
 
 public class WorldManager {
-    public static ConcurrentHashMap<ChunkCoord, Chunk> chunks = new ConcurrentHashMap<>();
+    // Hauteur du monde en chunks (y de 0 à HEIGHT_IN_CHUNKS * 16 - 1)
+    public static final int HEIGHT_IN_CHUNKS = 4;
+
+    // Index des chunks chargés, par coordonnées compactées (voir ChunkCoord.pack)
+    private final LongObjectMap<Chunk> chunks = new LongObjectMap<>();
+    // Cartes de hauteur des colonnes qui ont au moins une section chargée, clé ChunkCoord.pack(x, 0, z)
+    private final LongObjectMap<ColumnHeightmap> heightmaps = new LongObjectMap<>();
+    private final short[] heightmapScratch = new short[BlockStorage.VOLUME];
+    private final LightEngine lightEngine = new LightEngine(this);
+    // Chunks dont la lumière a changé pendant la dernière mise à jour, à remailler
+    private final LongObjectMap<Chunk> lightChanged = new LongObjectMap<>();
+    private final List<ChunkListener> listeners = new CopyOnWriteArrayList<>();
+    private final ChunkGenerator generator;
+    private final ForkJoinPool generationPool;
+    // Sauvegarde sur disque, null tant qu'aucun dossier de monde n'est associé
+    private volatile RegionStorage storage;
+    // Journal des modifications, null si le monde n'est pas sauvegardé
+    private volatile EditJournal journal;
+    // Compteur de ticks, avancé par la boucle de jeu
+    private long tick;
 
     public WorldManager() {
-        generateChunk();
+        this(new NoiseTerrainGenerator(0L));
+    }
+
+    public WorldManager(ChunkGenerator generator) {
+        this(generator, ForkJoinPool.commonPool());
+    }
+
+    public WorldManager(ChunkGenerator generator, ForkJoinPool generationPool) {
+        this.generator = generator;
+        this.generationPool = generationPool;
+        // Aucun chunk au départ : ils sont chargés autour de la caméra par ChunkStreamingService
+    }
+
+    /**
+     * Génère un chunk sans l'ajouter au monde. Sans état partagé : appelable depuis n'importe quel thread.
+     */
+    public Chunk generateChunk(ChunkCoord coord) {
+        Chunk chunk = new Chunk(coord);
+        generator.generate(coord.x(), coord.y(), coord.z(), chunk.getBlocks());
+        return chunk;
+    }
+
+    /**
+     * Charge une colonne avec les modifications du journal pas encore reportées dans les régions.
+     * Sans état partagé : appelable depuis n'importe quel thread.
+     */
+    public Chunk[] loadColumn(int chunkX, int chunkZ) {
+        EditJournal journal = this.journal;
+        return journal != null ? journal.loadColumn(chunkX, chunkZ) : readColumn(chunkX, chunkZ);
+    }
+
+    /**
+     * Colonne chargée et préparée hors du thread du monde : cartes de hauteur et sources de lumière
+     * relevées. Les sections lues sur le disque restent compressées, leurs résumés suffisent
+     * (voir {@link world.chunk.SectionSummary}) : {@link #addColumn} n'a aucun bloc à décoder.
+     */
+    public record PreparedColumn(Chunk[] sections, ColumnHeightmap heightmap) {}
+
+    /**
+     * {@link #loadColumn} suivi de tout ce que l'ajout au monde peut recevoir tout calculé.
+     * Sans état partagé : appelable depuis n'importe quel thread.
+     */
+    public PreparedColumn prepareColumn(int chunkX, int chunkZ) {
+        Chunk[] column = loadColumn(chunkX, chunkZ);
+        for (Chunk chunk : column) {
+            chunk.setLightSources(LightEngine.findLightSources(chunk));
+        }
+        return new PreparedColumn(column, ColumnHeightmap.build(column));
+    }
+
+    /**
+     * Lit une colonne depuis les régions si elle y existe, sinon la génère, sans le journal.
+     * Les sections lues restent compressées jusqu'au premier accès à leurs blocs ; une section
+     * qui s'avère alors illisible est régénérée (voir {@link ChunkCodec}).
+     */
+    public Chunk[] readColumn(int chunkX, int chunkZ) {
+        RegionStorage storage = this.storage;
+        if (storage != null) {
+            try {
+                ByteBuffer data = storage.read(chunkX, chunkZ);
+                if (data != null) {
+                    return ChunkCodec.decodeColumn(chunkX, chunkZ, data, generator);
+                }
+            } catch (IOException e) {
+                System.err.println("Colonne " + chunkX + "," + chunkZ + " illisible, régénération : " + e.getMessage());
+            }
+        }
+
+        Chunk[] column = new Chunk[HEIGHT_IN_CHUNKS];
+        for (int y = 0; y < column.length; y++) {
+            column[y] = generateChunk(new ChunkCoord(chunkX, y, chunkZ));
+        }
+        return column;
     }
 
-    private void generateChunk() {
-        // Exemple : générer quelques blocs dans ce chunk
-        // Les coordonnées sont LOCALES au chunk (0-31 pour un chunk de 32x32x32)
-        addChunk(0, 0, 0);
-        addChunk(2, 0, 0);
+    public RegionStorage getStorage() {
+        return storage;
     }
 
-    public ConcurrentHashMap<ChunkCoord, Chunk> getLoadedChunk() {
+    public void setStorage(RegionStorage storage) {
+        this.storage = storage;
+    }
+
+    public EditJournal getJournal() {
+        return journal;
+    }
+
+    public void setJournal(EditJournal journal) {
+        this.journal = journal;
+    }
+
+    // Appelé une fois par tour de la boucle de jeu, depuis le thread qui écrit dans le monde
+    public void tick() {
+        tick++;
+    }
+
+    public long getTick() {
+        return tick;
+    }
+
+    public ChunkGenerator getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Pool sur lequel {@link ChunkStreamingService} génère et prépare les colonnes en parallèle :
+     * {@link #prepareColumn} n'a pas d'état partagé, et le thread du monde les ajoute ensuite.
+     */
+    public ForkJoinPool getGenerationPool() {
+        return generationPool;
+    }
+
+    public void addListener(ChunkListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ChunkListener listener) {
+        listeners.remove(listener);
+    }
+
+    public LongObjectMap<Chunk> getLoadedChunk() {
         return chunks;
     }
 
-    public Chunk getChunk(int localX, int localY, int localZ) {
-        return chunks.get(new ChunkCoord(localX, localY, localZ));
+    public Chunk getChunk(int chunkX, int chunkY, int chunkZ) {
+        return chunks.get(ChunkCoord.pack(chunkX, chunkY, chunkZ));
     }
 
     public void addChunk(int x, int y, int z) {
-        ChunkCoord coord = new ChunkCoord(x, y, z);
-        chunks.put(coord, new Chunk(coord));
+        addChunk(generateChunk(new ChunkCoord(x, y, z)));
+    }
+
+    /**
+     * Ajoute une colonne préparée par {@link #prepareColumn}. Ses cartes de hauteur sont reprises
+     * telles quelles si aucune section de la colonne n'était chargée.
+     */
+    public void addColumn(PreparedColumn column) {
+        ChunkCoord first = column.sections()[0].getPosition();
+        long key = ChunkCoord.pack(first.x(), 0, first.z());
+        boolean precomputed = heightmaps.get(key) == null;
+        if (precomputed) heightmaps.put(key, column.heightmap());
+
+        for (Chunk chunk : column.sections()) {
+            addChunk(chunk, !precomputed);
+        }
+    }
+
+    public void addChunk(Chunk chunk) {
+        addChunk(chunk, true);
+    }
+
+    // scanHeightmap faux : la carte de hauteur de la colonne tient déjà compte de la section
+    private void addChunk(Chunk chunk, boolean scanHeightmap) {
+        Chunk replaced = chunks.put(chunk.getPosition().pack(), chunk);
+
+        ChunkCoord p = chunk.getPosition();
+        if (replaced != null) {
+            rebuildHeightmap(p.x(), p.z());
+        } else if (scanHeightmap) {
+            long key = ChunkCoord.pack(p.x(), 0, p.z());
+            ColumnHeightmap heightmap = heightmaps.get(key);
+            if (heightmap == null) {
+                heightmap = new ColumnHeightmap();
+                heightmaps.put(key, heightmap);
+            }
+            if (p.y() >= 0 && p.y() < HEIGHT_IN_CHUNKS) {
+                heightmap.addSection(p.y(), chunk, heightmapScratch);
+            }
+        }
+
+        lightEngine.onSectionLoaded(chunk);
+        lightEngine.propagate(lightChanged);
+        lightChanged.remove(p.pack());
+
+        for (ChunkListener listener : listeners) {
+            listener.onChunkLoaded(chunk);
+        }
+        fireLightChanged();
+    }
+
+    public Chunk removeChunk(int x, int y, int z) {
+        Chunk chunk = chunks.remove(ChunkCoord.pack(x, y, z));
+
+        if (chunk != null) {
+            long key = ChunkCoord.pack(x, 0, z);
+            ColumnHeightmap heightmap = heightmaps.get(key);
+            if (heightmap != null) {
+                heightmap.removeSection(y);
+                // Recalcul différé : une colonne entière se décharge section par section
+                if (!heightmap.hasSections()) heightmaps.remove(key);
+            }
+
+            for (ChunkListener listener : listeners) {
+                listener.onChunkUnloaded(chunk);
+            }
+        }
+        return chunk;
+    }
+
+    public ColumnHeightmap getHeightmap(int chunkX, int chunkZ) {
+        ColumnHeightmap heightmap = heightmaps.get(ChunkCoord.pack(chunkX, 0, chunkZ));
+        if (heightmap != null && heightmap.isStale()) rebuildHeightmap(chunkX, chunkZ);
+        return heightmap;
+    }
+
+    // y du plus haut bloc opaque en coordonnées monde, ColumnHeightmap.NONE si inconnu (colonne non chargée)
+    public int getHighestOpaque(int x, int z) {
+        ColumnHeightmap heightmap = getHeightmap(x >> 4, z >> 4);
+        return heightmap == null ? ColumnHeightmap.NONE : heightmap.getHighestOpaque(x & 0xF, z & 0xF);
+    }
+
+    public int getHighestNonAir(int x, int z) {
+        ColumnHeightmap heightmap = getHeightmap(x >> 4, z >> 4);
+        return heightmap == null ? ColumnHeightmap.NONE : heightmap.getHighestNonAir(x & 0xF, z & 0xF);
+    }
+
+    /**
+     * Recalcule les cartes de hauteur d'une colonne à partir de ses sections chargées,
+     * après une modification en masse (voir {@link WorldEditBatch}).
+     */
+    public void rebuildHeightmap(int chunkX, int chunkZ) {
+        ColumnHeightmap heightmap = heightmaps.get(ChunkCoord.pack(chunkX, 0, chunkZ));
+        if (heightmap == null) return;
+
+        heightmap.clear();
+        for (int y = 0; y < HEIGHT_IN_CHUNKS; y++) {
+            Chunk chunk = getChunk(chunkX, y, chunkZ);
+            if (chunk != null) heightmap.addSection(y, chunk, heightmapScratch);
+        }
+    }
+
+    // Mise à jour d'une case après setBlock : on monte tout de suite, on ne redescend qu'en cas de retrait du sommet
+    private void updateHeightmap(int x, int y, int z, int id) {
+        ColumnHeightmap heightmap = getHeightmap(x >> 4, z >> 4);
+        if (heightmap == null) return;
+
+        int lx = x & 0xF, lz = z & 0xF;
+        if (id != 0 && y > heightmap.getHighestNonAir(lx, lz)) {
+            heightmap.setHighestNonAir(lx, lz, y);
+        } else if (id == 0 && y == heightmap.getHighestNonAir(lx, lz)) {
+            int below = y - 1;
+            while (below >= 0 && getBlock(x, below, z) == 0) below--;
+            heightmap.setHighestNonAir(lx, lz, below);
+        }
+
+        boolean opaque = BlockRegistry.isOpaque(id);
+        if (opaque && y > heightmap.getHighestOpaque(lx, lz)) {
+            heightmap.setHighestOpaque(lx, lz, y);
+        } else if (!opaque && y == heightmap.getHighestOpaque(lx, lz)) {
+            int below = y - 1;
+            while (below >= 0 && !BlockRegistry.isOpaque(getBlock(x, below, z))) below--;
+            heightmap.setHighestOpaque(lx, lz, below);
+        }
+    }
+
+    public LightEngine getLightEngine() {
+        return lightEngine;
+    }
+
+    // Niveau de lumière (canal LightStorage.SKY ou BLOCK) en coordonnées monde, 0 si le chunk n'est pas chargé
+    public int getLight(int channel, int x, int y, int z) {
+        Chunk chunk = getChunk(x >> 4, y >> 4, z >> 4);
+        return chunk == null ? 0 : chunk.getLight().get(channel, BlockStorage.index(x & 0xF, y & 0xF, z & 0xF));
+    }
+
+    // Identifiant du bloc en coordonnées monde, 0 (air) si le chunk n'est pas chargé
+    public int getBlock(int x, int y, int z) {
+        Chunk chunk = getChunk(x >> 4, y >> 4, z >> 4);
+        return chunk == null ? 0 : chunk.getBlock(x & 0xF, y & 0xF, z & 0xF);
+    }
+
+    /**
+     * Place un bloc en coordonnées monde et prévient les écouteurs du chunk modifié,
+     * ainsi que des voisins qui touchent le bloc. Renvoie l'identifiant remplacé, ou -1
+     * si le chunk n'est pas chargé.
+     */
+    public int setBlock(int x, int y, int z, int id) {
+        Chunk chunk = getChunk(x >> 4, y >> 4, z >> 4);
+        if (chunk == null) return -1;
+
+        int lx = x & 0xF, ly = y & 0xF, lz = z & 0xF;
+        int old = chunk.setBlock(lx, ly, lz, id);
+        if (old == id) return old;
+
+        chunk.markSaveDirty();
+        updateHeightmap(x, y, z, id);
+        lightEngine.onBlockChanged(x, y, z, old, id);
+        lightEngine.propagate(lightChanged);
+        EditJournal journal = this.journal;
+        if (journal != null) {
+            journal.append(x >> 4, y >> 4, z >> 4, BlockStorage.index(lx, ly, lz), old, id, tick);
+        }
+
+        fireChanged(chunk);
+        // Sur un bord, les voisins de face, d'arête et de coin lisent la case (occlusion ambiante)
+        int minX = lx == 0 ? -1 : 0, maxX = lx == 15 ? 1 : 0;
+        int minY = ly == 0 ? -1 : 0, maxY = ly == 15 ? 1 : 0;
+        int minZ = lz == 0 ? -1 : 0, maxZ = lz == 15 ? 1 : 0;
+        for (int dx = minX; dx <= maxX; dx++) {
+            for (int dy = minY; dy <= maxY; dy++) {
+                for (int dz = minZ; dz <= maxZ; dz++) {
+                    if (dx != 0 || dy != 0 || dz != 0) {
+                        fireChanged(getChunk((x >> 4) + dx, (y >> 4) + dy, (z >> 4) + dz));
+                    }
+                }
+            }
+        }
+        fireLightChanged();
+        return old;
+    }
+
+    private void fireLightChanged() {
+        if (lightChanged.isEmpty()) return;
+
+        lightChanged.forEachValue(this::fireChanged);
+        lightChanged.clear();
+    }
+
+    public void fireChanged(Chunk chunk) {
+        if (chunk == null) return;
+
+        for (ChunkListener listener : listeners) {
+            listener.onChunkChanged(chunk);
+        }
     }
-}
\ No newline at end of file
+}
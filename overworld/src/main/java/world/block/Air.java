@@ -0,0 +1,13 @@
+package world.block;
+
+public class Air extends Block {
+
+    public Air() {
+        super("air", false, false, MeshCube.EMPTY);
+    }
+
+    @Override
+    public String getTextureName() {
+        return null;
+    }
+}
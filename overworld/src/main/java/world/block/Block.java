@@ -1,20 +1,47 @@
 package world.block;
 
-import org.joml.Vector3f;
-import world.chunk.LocalBlockCoord;
-
+/**
+ * Type de bloc partagé (flyweight) : une seule instance par type, enregistrée
+ * dans {@link BlockRegistry}. Les chunks ne stockent que son identifiant.
+ */
 public abstract class Block {
-    protected final MeshCube block;
-    protected final LocalBlockCoord position;
+    private final MeshCube model;
+    private final String name;
+    private final boolean opaque;
+    private final boolean solid;
+    // Niveau de lumière émis, de 0 à 15
+    private final int lightEmission;
+    private short id = -1;
+
+    protected Block(String name, boolean opaque, boolean solid, MeshCube model) {
+        this(name, opaque, solid, model, 0);
+    }
 
-    protected Block(LocalBlockCoord position) {
-        this.position = position;
-        block = new MeshCube(position, new Vector3f(1, 1, 1));
+    protected Block(String name, boolean opaque, boolean solid, MeshCube model, int lightEmission) {
+        if (lightEmission < 0 || lightEmission > 15) {
+            throw new IllegalArgumentException("Émission de lumière hors de 0-15 : " + lightEmission);
+        }
+        this.name = name;
+        this.opaque = opaque;
+        this.solid = solid;
+        this.model = model;
+        this.lightEmission = lightEmission;
     }
 
-    public abstract LocalBlockCoord getPosition() ;
+    public short getId() { return id; }
+
+    // Attribué une seule fois par le registre
+    void setId(short id) { this.id = id; }
+
+    public String getName() { return name; }
+
+    public boolean isOpaque() { return opaque; }
+
+    public boolean isSolid() { return solid; }
+
+    public int getLightEmission() { return lightEmission; }
 
-    public MeshCube getBlock() { return block; };
+    public MeshCube getModel() { return model; }
 
     public abstract String getTextureName();
-}
\ No newline at end of file
+}
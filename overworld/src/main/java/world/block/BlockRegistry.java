@@ -0,0 +1,98 @@
+package world.block;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registre des types de blocs. Chaque type reçoit un identifiant court et
+ * compact ; ses propriétés sont recopiées dans des tableaux indexés par cet
+ * identifiant pour que le rendu et le maillage n'aient qu'un accès tableau à faire.
+ * L'identifiant 0 est toujours l'air.
+ */
+public final class BlockRegistry {
+    private static Block[] blocks = new Block[16];
+    private static boolean[] opaque = new boolean[16];
+    private static boolean[] solid = new boolean[16];
+    private static boolean[] rendered = new boolean[16];
+    private static byte[] lightEmission = new byte[16];
+    private static String[] textureNames = new String[16];
+    private static final Map<String, Block> byName = new HashMap<>();
+    private static int count;
+    private static boolean anyEmitter;
+
+    public static final short AIR = register(new Air());
+    public static final short DEARTH = register(new Dearth());
+    public static final short GRASS = register(new Grass());
+
+    private BlockRegistry() {}
+
+    public static synchronized short register(Block block) {
+        if (byName.containsKey(block.getName())) {
+            throw new IllegalArgumentException("Bloc déjà enregistré : " + block.getName());
+        }
+        if (count == Short.MAX_VALUE) {
+            throw new IllegalStateException("Trop de types de blocs enregistrés");
+        }
+
+        if (count == blocks.length) {
+            int capacity = blocks.length * 2;
+            blocks = Arrays.copyOf(blocks, capacity);
+            opaque = Arrays.copyOf(opaque, capacity);
+            solid = Arrays.copyOf(solid, capacity);
+            rendered = Arrays.copyOf(rendered, capacity);
+            lightEmission = Arrays.copyOf(lightEmission, capacity);
+            textureNames = Arrays.copyOf(textureNames, capacity);
+        }
+
+        short id = (short) count++;
+        block.setId(id);
+        blocks[id] = block;
+        opaque[id] = block.isOpaque();
+        solid[id] = block.isSolid();
+        rendered[id] = !block.getModel().isEmpty();
+        lightEmission[id] = (byte) block.getLightEmission();
+        anyEmitter |= block.getLightEmission() > 0;
+        textureNames[id] = block.getTextureName();
+        byName.put(block.getName(), block);
+        return id;
+    }
+
+    public static Block get(int id) {
+        return blocks[id];
+    }
+
+    public static Block getByName(String name) {
+        return byName.get(name);
+    }
+
+    public static boolean isOpaque(int id) {
+        return opaque[id];
+    }
+
+    public static boolean isSolid(int id) {
+        return solid[id];
+    }
+
+    // Vrai si le bloc a un modèle à mailler
+    public static boolean isRendered(int id) {
+        return rendered[id];
+    }
+
+    public static int getLightEmission(int id) {
+        return lightEmission[id];
+    }
+
+    // Faux tant qu'aucun bloc lumineux n'est enregistré : le chargement d'une section peut sauter leur recherche
+    public static boolean hasLightEmitters() {
+        return anyEmitter;
+    }
+
+    public static String getTextureName(int id) {
+        return textureNames[id];
+    }
+
+    public static int size() {
+        return count;
+    }
+}
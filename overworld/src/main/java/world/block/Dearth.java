@@ -1,22 +1,13 @@
 package world.block;
 
-import world.chunk.LocalBlockCoord;
-
 public class Dearth extends Block {
-    private final LocalBlockCoord position;
-
-    public Dearth(LocalBlockCoord position) {
-        super(position);
-        this.position = position;
-    }
 
-    @Override
-    public LocalBlockCoord getPosition() {
-        return position;
+    public Dearth() {
+        super("dearth", true, true, MeshCube.FULL);
     }
 
     @Override
     public String getTextureName() {
         return "deart";
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package world.block;
+
+/**
+ * Les six faces d'un bloc, avec la direction de leur normale.
+ */
+public enum Face {
+    UP(0, 1, 0),
+    DOWN(0, -1, 0),
+    EAST(1, 0, 0),
+    WEST(-1, 0, 0),
+    SOUTH(0, 0, 1),
+    NORTH(0, 0, -1);
+
+    // Copie partagée : values() alloue un nouveau tableau à chaque appel
+    public static final Face[] VALUES = values();
+
+    public final int dx, dy, dz;
+
+    Face(int dx, int dy, int dz) {
+        this.dx = dx;
+        this.dy = dy;
+        this.dz = dz;
+    }
+
+    public Face opposite() {
+        return VALUES[ordinal() ^ 1];
+    }
+}
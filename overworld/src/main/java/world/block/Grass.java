@@ -0,0 +1,13 @@
+package world.block;
+
+public class Grass extends Block {
+
+    public Grass() {
+        super("grass", true, true, MeshCube.FULL);
+    }
+
+    @Override
+    public String getTextureName() {
+        return "grass";
+    }
+}
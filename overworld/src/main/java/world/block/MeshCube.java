@@ -1,6 +1,12 @@
 package world.block;
 
 import org.joml.Vector3f;
-import world.chunk.LocalBlockCoord;
 
-public record MeshCube(LocalBlockCoord position, Vector3f size) {}
\ No newline at end of file
+public record MeshCube(Vector3f size) {
+    public static final MeshCube FULL = new MeshCube(new Vector3f(1, 1, 1));
+    public static final MeshCube EMPTY = new MeshCube(new Vector3f(0, 0, 0));
+
+    public boolean isEmpty() {
+        return size.x == 0 || size.y == 0 || size.z == 0;
+    }
+}
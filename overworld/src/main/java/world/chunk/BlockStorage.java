@@ -0,0 +1,448 @@
+package world.chunk;
+
+import world.block.BlockRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Stockage dense d'une section 16x16x16.
+ * Chaque section garde une palette d'identifiants de blocs et un tableau d'index
+ * compactés dans des longs. La largeur d'un index s'élargit (0, 1, 2, 4, 8 bits)
+ * quand la palette grandit ; au-delà de 256 états, les identifiants sont stockés
+ * directement sur 16 bits. L'identifiant 0 est l'air.
+ * <p>
+ * Rien n'est verrouillé : une section ne doit être lue et écrite que depuis un seul thread
+ * à la fois. Les écritures modifient la palette, sa taille et les mots compactés en place,
+ * sans barrière de publication, donc un autre thread qui lirait pendant une écriture
+ * pourrait voir un index sans son entrée de palette.
+ * <p>
+ * Pour lire depuis un autre thread, passer par {@link #snapshot()} : les données sont partagées
+ * en copie sur écriture, la copie ne coûte rien tant que la section n'est pas modifiée, puis
+ * le thread qui écrit recopie une seule fois à la première écriture et ne touche plus jamais
+ * aux données de l'instantané.
+ */
+public class BlockStorage {
+    public static final int SIZE = 16;
+    public static final int VOLUME = SIZE * SIZE * SIZE;
+
+    private static final int MAX_PALETTE_BITS = 8;
+    private static final int DIRECT_BITS = 16;
+
+    private volatile Data data;
+    private int nonAirCount;
+    // Vrai si data est partagé avec un instantané : à recopier avant la prochaine écriture
+    private boolean shared;
+
+    public BlockStorage() {
+        data = new Data(0, new short[]{0}, 1);
+    }
+
+    private BlockStorage(Data data, int nonAirCount) {
+        this.data = data;
+        this.nonAirCount = nonAirCount;
+    }
+
+    /**
+     * Copie figée de la section, en O(1). À appeler depuis le thread qui écrit ;
+     * la copie peut ensuite être lue depuis n'importe quel thread mais ne doit pas être modifiée.
+     */
+    public BlockStorage snapshot() {
+        shared = true;
+        return new BlockStorage(data, nonAirCount);
+    }
+
+    @FunctionalInterface
+    public interface BlockVisitor {
+        void visit(int x, int y, int z, int id);
+    }
+
+    // Index linéaire : x varie le plus vite, puis z, puis y
+    public static int index(int x, int y, int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    public int get(int x, int y, int z) {
+        return data.get(index(x, y, z));
+    }
+
+    public int getAt(int index) {
+        return data.get(index);
+    }
+
+    /**
+     * Place un bloc et renvoie l'identifiant qui occupait la case.
+     */
+    public int set(int x, int y, int z, int id) {
+        return setAt(index(x, y, z), id);
+    }
+
+    public int setAt(int index, int id) {
+        Data d = data;
+        int old = d.get(index);
+        if (old == id) return old;
+
+        if (shared) {
+            d = d.copy();
+            data = d;
+            shared = false;
+        }
+
+        int value = d.valueOf(id);
+        if (value < 0) {
+            d = grow(d);
+            value = d.valueOf(id);
+        }
+        d.put(index, value);
+
+        if (old == 0) nonAirCount++;
+        else if (id == 0) nonAirCount--;
+        return old;
+    }
+
+    /**
+     * Remplit toute la section avec un seul bloc ; la palette repart de zéro.
+     */
+    public void fill(int id) {
+        data = new Data(0, new short[]{(short) id}, 1);
+        nonAirCount = id == 0 ? 0 : VOLUME;
+        shared = false;
+    }
+
+    /**
+     * Remplit la boîte [x0..x1]x[y0..y1]x[z0..z1] (bornes locales incluses) avec un bloc.
+     * La palette n'est consultée qu'une fois ; une boîte couvrant la section revient à {@link #fill}.
+     */
+    public void fillBox(int x0, int y0, int z0, int x1, int y1, int z1, int id) {
+        if (coversSection(x0, y0, z0, x1, y1, z1)) {
+            fill(id);
+            return;
+        }
+
+        Data d = prepareWrite(id);
+        int value = d.valueOf(id);
+        int count = nonAirCount;
+        for (int y = y0; y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                for (int i = index(x0, y, z), end = index(x1, y, z); i <= end; i++) {
+                    int old = d.get(i);
+                    if (old == id) continue;
+
+                    d.put(i, value);
+                    if (old == 0) count++;
+                    else if (id == 0) count--;
+                }
+            }
+        }
+        nonAirCount = count;
+    }
+
+    /**
+     * Remplace {@code from} par {@code to} dans la boîte (bornes locales incluses). Sur une section
+     * entière en mode palette, il suffit de renommer l'entrée de palette, sans toucher aux index.
+     */
+    public void replaceBox(int x0, int y0, int z0, int x1, int y1, int z1, int from, int to) {
+        if (from == to) return;
+
+        Data d = data;
+        int fromValue = d.indexOf(from);
+        if (d.palette != null && fromValue < 0) return; // absent de la section
+
+        if (coversSection(x0, y0, z0, x1, y1, z1) && d.palette != null && d.indexOf(to) < 0) {
+            if (from == 0 || to == 0) {
+                int occurrences = d.count(fromValue);
+                nonAirCount += from == 0 ? occurrences : -occurrences;
+            }
+            d = prepareWrite(from); // recopie si partagé, sans agrandir
+            d.palette[fromValue] = (short) to;
+            return;
+        }
+
+        d = prepareWrite(to);
+        int value = d.valueOf(to);
+        int count = nonAirCount;
+        for (int y = y0; y <= y1; y++) {
+            for (int z = z0; z <= z1; z++) {
+                for (int i = index(x0, y, z), end = index(x1, y, z); i <= end; i++) {
+                    if (d.get(i) != from) continue;
+
+                    d.put(i, value);
+                    if (from == 0) count++;
+                    else if (to == 0) count--;
+                }
+            }
+        }
+        nonAirCount = count;
+    }
+
+    private static boolean coversSection(int x0, int y0, int z0, int x1, int y1, int z1) {
+        return x0 == 0 && y0 == 0 && z0 == 0 && x1 == SIZE - 1 && y1 == SIZE - 1 && z1 == SIZE - 1;
+    }
+
+    // Données prêtes à recevoir id : recopiées si partagées avec un instantané, agrandies si la palette est pleine
+    private Data prepareWrite(int id) {
+        Data d = data;
+        if (shared) {
+            d = d.copy();
+            data = d;
+            shared = false;
+        }
+        if (d.valueOf(id) < 0) {
+            d = grow(d);
+        }
+        return d;
+    }
+
+    /**
+     * Décode toute la section dans {@code out} (au moins {@link #VOLUME} cases), dans l'ordre de {@link #index}.
+     */
+    public void copyTo(short[] out) {
+        data.copyTo(out);
+    }
+
+    /**
+     * Parcourt tous les blocs qui ne sont pas de l'air, sans allocation par bloc.
+     */
+    public void forEachNonAir(BlockVisitor visitor) {
+        if (nonAirCount == 0) return;
+
+        Data d = data;
+        for (int i = 0; i < VOLUME; i++) {
+            int id = d.get(i);
+            if (id != 0) {
+                visitor.visit(i & 0xF, i >>> 8, (i >>> 4) & 0xF, id);
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return nonAirCount == 0;
+    }
+
+    public int getNonAirCount() {
+        return nonAirCount;
+    }
+
+    // Identifiant commun à toute la section, ou -1 si elle en contient plusieurs
+    public int getUniformId() {
+        Data d = data;
+        return d.bits == 0 ? d.palette[0] : -1;
+    }
+
+    public int getBitsPerEntry() {
+        return data.bits;
+    }
+
+    public int getPaletteSize() {
+        return data.paletteSize;
+    }
+
+    /**
+     * Taille en octets de {@link #writeTo} : largeur, palette puis mots compactés tels quels.
+     */
+    public int serializedSize() {
+        Data d = data;
+        int words = d.words == null ? 0 : d.words.length;
+        return 1 + 2 + d.paletteSize * 2 + words * 8;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        Data d = data;
+        out.put((byte) d.bits);
+        out.putShort((short) d.paletteSize);
+        for (int i = 0; i < d.paletteSize; i++) {
+            out.putShort(d.palette[i]);
+        }
+        if (d.words != null) {
+            for (long word : d.words) {
+                out.putLong(word);
+            }
+        }
+    }
+
+    /**
+     * Remplace le contenu par celui écrit par {@link #writeTo}. Des données tronquées ou un
+     * identifiant absent de {@link BlockRegistry} (monde écrit par une version qui connaît plus de
+     * blocs, ou données abîmées) donnent une {@link IOException} et laissent la section intacte.
+     */
+    public void readFrom(ByteBuffer in) throws IOException {
+        if (in.remaining() < 1 + 2) throw new IOException("Section tronquée");
+        int bits = in.get();
+        int paletteSize = in.getShort() & 0xFFFF;
+        if (bits != 0 && bits != 1 && bits != 2 && bits != 4 && bits != 8 && bits != DIRECT_BITS) {
+            throw new IOException("Largeur d'index invalide : " + bits);
+        }
+        if (bits != DIRECT_BITS && (paletteSize == 0 || paletteSize > Math.max(1, 1 << bits))) {
+            throw new IOException("Taille de palette invalide : " + paletteSize);
+        }
+
+        int blockTypes = BlockRegistry.size();
+        short[] palette = null;
+        if (bits != DIRECT_BITS) {
+            if (in.remaining() < paletteSize * 2) throw new IOException("Palette tronquée");
+            palette = new short[Math.max(1, 1 << bits)];
+            for (int i = 0; i < paletteSize; i++) {
+                palette[i] = in.getShort();
+                if (palette[i] < 0 || palette[i] >= blockTypes) {
+                    throw new IOException("Identifiant de bloc inconnu dans la palette : " + palette[i]);
+                }
+            }
+        }
+
+        Data d = new Data(bits, palette, paletteSize);
+        if (d.words != null) {
+            if (in.remaining() < d.words.length * 8) throw new IOException("Index tronqués");
+            for (int i = 0; i < d.words.length; i++) {
+                d.words[i] = in.getLong();
+            }
+        }
+
+        // Un index au-delà de la palette, ou un identifiant direct inconnu, ferait déborder les
+        // tables de BlockRegistry plus tard, sur un autre thread
+        int count = 0;
+        for (int i = 0; i < VOLUME; i++) {
+            int raw = d.raw(i);
+            int id = palette == null ? raw : raw < paletteSize ? palette[raw] : -1;
+            if (id < 0 || id >= blockTypes) {
+                throw new IOException("Identifiant de bloc inconnu en " + i + " : " + (palette == null ? raw : "index " + raw));
+            }
+            if (id != 0) count++;
+        }
+        data = d;
+        nonAirCount = count;
+        shared = false;
+    }
+
+    private Data grow(Data old) {
+        int bits = old.bits == 0 ? 1 : old.bits * 2;
+        Data grown;
+
+        if (bits > MAX_PALETTE_BITS) {
+            // Palette trop grande : on passe aux identifiants directs
+            grown = new Data(DIRECT_BITS, null, 0);
+            for (int i = 0; i < VOLUME; i++) {
+                grown.put(i, old.get(i));
+            }
+        } else {
+            short[] palette = new short[1 << bits];
+            System.arraycopy(old.palette, 0, palette, 0, old.paletteSize);
+            grown = new Data(bits, palette, old.paletteSize);
+            if (old.bits != 0) {
+                for (int i = 0; i < VOLUME; i++) {
+                    grown.put(i, old.raw(i));
+                }
+            }
+        }
+
+        data = grown;
+        return grown;
+    }
+
+    /**
+     * Un format de stockage figé : largeur des index, mots compactés et palette.
+     * La palette ne fait que grandir jusqu'à sa capacité (1 << bits).
+     */
+    private static final class Data {
+        final int bits;
+        final long[] words;
+        final short[] palette; // null en mode direct
+        int paletteSize;
+
+        final int valueMask;
+        final int wordShift;  // log2(entrées par long)
+        final int slotMask;   // entrées par long - 1
+
+        Data(int bits, short[] palette, int paletteSize) {
+            this.bits = bits;
+            this.palette = palette;
+            this.paletteSize = paletteSize;
+
+            if (bits == 0) {
+                words = null;
+                valueMask = 0;
+                wordShift = 0;
+                slotMask = 0;
+            } else {
+                int perLong = 64 / bits;
+                words = new long[VOLUME / perLong];
+                valueMask = (1 << bits) - 1;
+                wordShift = Integer.numberOfTrailingZeros(perLong);
+                slotMask = perLong - 1;
+            }
+        }
+
+        Data copy() {
+            Data copy = new Data(bits, palette == null ? null : palette.clone(), paletteSize);
+            if (words != null) System.arraycopy(words, 0, copy.words, 0, words.length);
+            return copy;
+        }
+
+        int raw(int index) {
+            if (bits == 0) return 0;
+            return (int) (words[index >>> wordShift] >>> ((index & slotMask) * bits)) & valueMask;
+        }
+
+        int get(int index) {
+            int raw = raw(index);
+            return palette == null ? raw : palette[raw];
+        }
+
+        void put(int index, int value) {
+            int word = index >>> wordShift;
+            int shift = (index & slotMask) * bits;
+            words[word] = (words[word] & ~((long) valueMask << shift)) | ((long) value << shift);
+        }
+
+        // Valeur déjà associée à cet identifiant, ou -1, sans rien ajouter à la palette
+        int indexOf(int id) {
+            if (palette == null) return id;
+
+            for (int i = 0; i < paletteSize; i++) {
+                if (palette[i] == id) return i;
+            }
+            return -1;
+        }
+
+        // Nombre de cases qui stockent cette valeur brute
+        int count(int value) {
+            if (bits == 0) return value == 0 ? VOLUME : 0;
+
+            int count = 0;
+            for (int i = 0; i < VOLUME; i++) {
+                if (raw(i) == value) count++;
+            }
+            return count;
+        }
+
+        // Valeur à stocker pour cet identifiant, ou -1 si la palette est pleine
+        int valueOf(int id) {
+            if (palette == null) return id;
+
+            for (int i = 0; i < paletteSize; i++) {
+                if (palette[i] == id) return i;
+            }
+            if (paletteSize < palette.length) {
+                palette[paletteSize] = (short) id;
+                return paletteSize++;
+            }
+            return -1;
+        }
+
+        void copyTo(short[] out) {
+            if (bits == 0) {
+                Arrays.fill(out, 0, VOLUME, palette[0]);
+                return;
+            }
+
+            int perLong = slotMask + 1;
+            int i = 0;
+            for (long word : words) {
+                for (int slot = 0; slot < perLong; slot++) {
+                    int raw = (int) (word >>> (slot * bits)) & valueMask;
+                    out[i++] = palette == null ? (short) raw : palette[raw];
+                }
+            }
+        }
+    }
+}
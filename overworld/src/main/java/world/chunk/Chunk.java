@@ -1,33 +1,144 @@
 package world.chunk;
 
 import world.ChunkCoord;
-import world.block.Block;
-import world.block.Dearth;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Chunk {
-    public ConcurrentHashMap<LocalBlockCoord, Block> blocks = new ConcurrentHashMap<>();
+    public static final int SIZE = BlockStorage.SIZE;
+
+    private final BlockStorage blocks;
+    // Lumière du ciel et des blocs, recalculée au chargement (voir world.light.LightEngine)
+    private final LightStorage light = new LightStorage();
     private final ChunkCoord position;
+    // Contenu encore compressé, décodé au premier accès aux blocs
+    private volatile Loader pendingLoad;
+    private final AtomicBoolean meshDirty = new AtomicBoolean();
+    private volatile int meshRevision;
+    // Niveau de détail demandé pour le prochain maillage (0 = complet)
+    private volatile int meshLod;
+    // Index des blocs lumineux relevés par le thread de chargement, null s'ils ne l'ont pas été
+    private volatile short[] lightSources;
+    // Modifié depuis la dernière sauvegarde (thread du monde uniquement)
+    private volatile boolean saveDirty;
+
+    @FunctionalInterface
+    public interface Loader {
+        void load(BlockStorage into);
+
+        // Résumé enregistré avec le contenu compressé, ou null
+        default SectionSummary summary() {
+            return null;
+        }
+    }
 
+    // Chunk vide : le contenu vient d'un ChunkGenerator ou de la sauvegarde
     public Chunk(ChunkCoord position) {
+        this(position, new BlockStorage());
+    }
+
+    // Chunk dont le contenu ne sera décodé qu'au premier appel de getBlocks()
+    public Chunk(ChunkCoord position, Loader loader) {
+        this(position, new BlockStorage());
+        this.pendingLoad = loader;
+    }
+
+    private Chunk(ChunkCoord position, BlockStorage blocks) {
         this.position = position;
-        generateBlocks();
+        this.blocks = blocks;
+    }
+
+    /**
+     * Copie figée du chunk en copie sur écriture (voir {@link BlockStorage#snapshot()}),
+     * à prendre depuis le thread du monde puis à lire depuis n'importe quel thread.
+     */
+    public Chunk snapshot() {
+        return new Chunk(position, getBlocks().snapshot());
     }
 
-    private void generateBlocks() {
-        // Exemple : générer quelques blocs dans ce chunk
-        // Les coordonnées sont LOCALES au chunk (0-31 pour un chunk de 32x32x32)
-        addBlock(0, 0, 0);
-        addBlock(2, 0, 0);
-        addBlock(1, 0, 0);
-        addBlock(3, 0, 1);
+    // Une section compressée d'un seul bloc répond sans être décodée
+    public int getBlock(int x, int y, int z) {
+        SectionSummary summary = getSummary();
+        if (summary != null && summary.getUniformId() >= 0) return summary.getUniformId();
+        return getBlocks().get(x, y, z);
     }
 
-    // Ajouter un bloc au chunk (coordonnées locales)
-    public void addBlock(int x, int y, int z) {
-        LocalBlockCoord pos = new LocalBlockCoord((byte) x, (byte) y, (byte) z);
-        blocks.put(pos, new Dearth(pos));
+    // Comme getBlock, par index linéaire (voir BlockStorage.index)
+    public int getBlockAt(int index) {
+        SectionSummary summary = getSummary();
+        if (summary != null && summary.getUniformId() >= 0) return summary.getUniformId();
+        return getBlocks().getAt(index);
+    }
+
+    /**
+     * Identifiant commun à toute la section, ou -1 si elle en contient plusieurs. Une section
+     * encore compressée répond avec son résumé, sans être décodée.
+     */
+    public int getUniformId() {
+        SectionSummary summary = getSummary();
+        return summary != null ? summary.getUniformId() : getBlocks().getUniformId();
+    }
+
+    // Renvoie l'identifiant remplacé
+    public int setBlock(int x, int y, int z, int id) {
+        return getBlocks().set(x, y, z, id);
+    }
+
+    // Vrai si le chunk vient de passer à l'état « à remailler » (et doit donc être mis en file)
+    public boolean markMeshDirty() {
+        return meshDirty.compareAndSet(false, true);
+    }
+
+    public void clearMeshDirty() {
+        meshDirty.set(false);
+    }
+
+    public boolean isMeshDirty() {
+        return meshDirty.get();
+    }
+
+    public void markSaveDirty() {
+        saveDirty = true;
+    }
+
+    public void clearSaveDirty() {
+        saveDirty = false;
+    }
+
+    public boolean isSaveDirty() {
+        return saveDirty;
+    }
+
+    // Numéro du dernier maillage demandé, pour écarter les résultats périmés (thread de rendu)
+    public int nextMeshRevision() {
+        return ++meshRevision;
+    }
+
+    public int getMeshRevision() {
+        return meshRevision;
+    }
+
+    public int getMeshLod() {
+        return meshLod;
+    }
+
+    public void setMeshLod(int lod) {
+        this.meshLod = lod;
+    }
+
+    public void setLightSources(short[] lightSources) {
+        this.lightSources = lightSources;
+    }
+
+    // Sources relevées au chargement, une seule fois : null ensuite, ou si rien n'a été relevé
+    public short[] takeLightSources() {
+        short[] sources = lightSources;
+        lightSources = null;
+        return sources;
+    }
+
+    public LightStorage getLight() {
+        return light;
     }
 
     public ChunkCoord getPosition() {
@@ -35,7 +146,36 @@ public class Chunk {
     }
 
     // Getter pour tous les blocs (pour le rendu)
-    public ConcurrentHashMap<LocalBlockCoord, Block> getBlocks() {
+    public BlockStorage getBlocks() {
+        if (pendingLoad != null) {
+            decompress();
+        }
         return blocks;
     }
-}
\ No newline at end of file
+
+    public boolean isDecompressed() {
+        return pendingLoad == null;
+    }
+
+    /**
+     * Résumé de la section tant qu'elle n'a pas été décodée, null ensuite (ou si le format
+     * enregistré n'en avait pas) : les blocs font alors foi.
+     */
+    public SectionSummary getSummary() {
+        Loader loader = pendingLoad;
+        return loader == null ? null : loader.summary();
+    }
+
+    // Contenu encore compressé, null une fois décodé
+    public Loader getPendingLoad() {
+        return pendingLoad;
+    }
+
+    private synchronized void decompress() {
+        Loader loader = pendingLoad;
+        if (loader == null) return; // décodé entre temps par un autre thread
+
+        loader.load(blocks);
+        pendingLoad = null;
+    }
+}
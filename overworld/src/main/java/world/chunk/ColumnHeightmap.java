@@ -0,0 +1,161 @@
+package world.chunk;
+
+import world.block.BlockRegistry;
+
+import java.util.Arrays;
+
+/**
+ * Cartes de hauteur d'une colonne de chunks : pour chaque (x, z) local, le y monde du plus haut
+ * bloc opaque et du plus haut bloc non vide, ou {@link #NONE}. Tenues à jour par
+ * {@link world.WorldManager} à chaque chargement de section et à chaque modification.
+ */
+public class ColumnHeightmap {
+    public static final int NONE = -1;
+    private static final int AREA = Chunk.SIZE * Chunk.SIZE;
+
+    private final short[] highestOpaque = new short[AREA];
+    private final short[] highestNonAir = new short[AREA];
+    // Sections chargées de la colonne, un bit par y de chunk
+    private int sectionMask;
+    // Une section a été retirée : à recalculer avant la prochaine lecture
+    private boolean stale;
+
+    // Plus basse des hauteurs opaques, recalculée à la demande
+    private int lowestOpaque = NONE;
+    private boolean lowestDirty;
+
+    public ColumnHeightmap() {
+        clear();
+    }
+
+    /**
+     * Cartes d'une colonne entière (index du tableau = y du chunk, cases nulles ignorées). Sans état
+     * partagé : le thread de chargement la calcule avant de confier la colonne au monde. Les
+     * sections encore compressées ne sont pas décodées (voir {@link #addSection(int, Chunk, short[])}).
+     */
+    public static ColumnHeightmap build(Chunk[] column) {
+        ColumnHeightmap heightmap = new ColumnHeightmap();
+        short[] scratch = new short[BlockStorage.VOLUME];
+        for (int y = 0; y < column.length; y++) {
+            if (column[y] != null) heightmap.addSection(y, column[y], scratch);
+        }
+        return heightmap;
+    }
+
+    // Index dans les cartes : x varie le plus vite
+    public static int index(int x, int z) {
+        return (z << 4) | x;
+    }
+
+    public int getHighestOpaque(int x, int z) {
+        return highestOpaque[index(x, z)];
+    }
+
+    public int getHighestNonAir(int x, int z) {
+        return highestNonAir[index(x, z)];
+    }
+
+    public void setHighestOpaque(int x, int z, int y) {
+        highestOpaque[index(x, z)] = (short) y;
+        lowestDirty = true;
+    }
+
+    public void setHighestNonAir(int x, int z, int y) {
+        highestNonAir[index(x, z)] = (short) y;
+    }
+
+    /**
+     * Plus petite hauteur opaque de la colonne : tout ce qui est en dessous est sous la surface
+     * partout. {@link #NONE} si une case n'a aucun bloc opaque.
+     */
+    public int getLowestOpaque() {
+        if (lowestDirty) {
+            int lowest = Integer.MAX_VALUE;
+            for (short height : highestOpaque) {
+                lowest = Math.min(lowest, height);
+            }
+            lowestOpaque = lowest;
+            lowestDirty = false;
+        }
+        return lowestOpaque;
+    }
+
+    /**
+     * Relève les hauteurs avec le contenu d'une section nouvellement chargée.
+     * {@code scratch} reçoit le contenu décodé (au moins {@link BlockStorage#VOLUME} cases).
+     */
+    public void addSection(int chunkY, BlockStorage blocks, short[] scratch) {
+        sectionMask |= 1 << chunkY;
+        if (blocks.isEmpty()) return;
+
+        blocks.copyTo(scratch);
+        int baseY = chunkY * Chunk.SIZE;
+        for (int i = 0; i < AREA; i++) {
+            for (int y = Chunk.SIZE - 1; y >= 0; y--) {
+                int id = scratch[(y << 8) | i];
+                if (id == 0) continue;
+
+                int worldY = baseY + y;
+                if (worldY > highestNonAir[i]) highestNonAir[i] = (short) worldY;
+                if (BlockRegistry.isOpaque(id)) {
+                    if (worldY > highestOpaque[i]) {
+                        highestOpaque[i] = (short) worldY;
+                        lowestDirty = true;
+                    }
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Comme {@link #addSection(int, BlockStorage, short[])}, depuis le résumé de la section tant
+     * qu'elle est compressée : ses blocs ne sont décodés que si elle n'en a pas.
+     */
+    public void addSection(int chunkY, Chunk chunk, short[] scratch) {
+        SectionSummary summary = chunk.getSummary();
+        if (summary != null) {
+            addSection(chunkY, summary);
+        } else {
+            addSection(chunkY, chunk.getBlocks(), scratch);
+        }
+    }
+
+    public void addSection(int chunkY, SectionSummary summary) {
+        sectionMask |= 1 << chunkY;
+
+        int baseY = chunkY * Chunk.SIZE;
+        for (int i = 0; i < AREA; i++) {
+            int nonAir = summary.getHighestNonAir(i);
+            if (nonAir == NONE) continue;
+
+            if (baseY + nonAir > highestNonAir[i]) highestNonAir[i] = (short) (baseY + nonAir);
+            int opaque = summary.getHighestOpaque(i);
+            if (opaque != NONE && baseY + opaque > highestOpaque[i]) {
+                highestOpaque[i] = (short) (baseY + opaque);
+                lowestDirty = true;
+            }
+        }
+    }
+
+    public void removeSection(int chunkY) {
+        sectionMask &= ~(1 << chunkY);
+        stale = true;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public boolean hasSections() {
+        return sectionMask != 0;
+    }
+
+    public void clear() {
+        Arrays.fill(highestOpaque, (short) NONE);
+        Arrays.fill(highestNonAir, (short) NONE);
+        lowestOpaque = NONE;
+        lowestDirty = false;
+        stale = false;
+    }
+}
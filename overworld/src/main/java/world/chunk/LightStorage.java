@@ -0,0 +1,50 @@
+package world.chunk;
+
+/**
+ * Lumière d'une section : 4 bits de lumière du ciel et 4 bits de lumière des blocs par case,
+ * rangés deux cases par octet dans deux tableaux de {@link BlockStorage#VOLUME} / 2 octets.
+ * Même index que {@link BlockStorage#index}.
+ * <p>
+ * Écrite par le thread du monde (voir {@link world.light.LightEngine}) et lue sans verrou par les
+ * threads de maillage : une lecture concurrente peut voir l'ancienne valeur, le chunk est alors
+ * remaillé après la mise à jour.
+ */
+public class LightStorage {
+    public static final int MAX = 15;
+    public static final int SKY = 0;
+    public static final int BLOCK = 1;
+
+    private final byte[] sky = new byte[BlockStorage.VOLUME / 2];
+    private final byte[] block = new byte[BlockStorage.VOLUME / 2];
+
+    public int get(int channel, int index) {
+        return nibble(channel == SKY ? sky : block, index);
+    }
+
+    public void set(int channel, int index, int level) {
+        setNibble(channel == SKY ? sky : block, index, level);
+    }
+
+    public int getSky(int index) {
+        return nibble(sky, index);
+    }
+
+    public int getBlock(int index) {
+        return nibble(block, index);
+    }
+
+    // Les deux niveaux dans un octet : ciel dans les 4 bits de poids fort, blocs dans les 4 autres
+    public int getPacked(int index) {
+        return (nibble(sky, index) << 4) | nibble(block, index);
+    }
+
+    private static int nibble(byte[] array, int index) {
+        return (array[index >> 1] >> ((index & 1) << 2)) & 0xF;
+    }
+
+    private static void setNibble(byte[] array, int index, int level) {
+        int shift = (index & 1) << 2;
+        int i = index >> 1;
+        array[i] = (byte) ((array[i] & ~(0xF << shift)) | ((level & 0xF) << shift));
+    }
+}
@@ -0,0 +1,142 @@
+package world.chunk;
+
+import world.block.BlockRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Ce que le chargement doit savoir d'une section sans décoder ses blocs : l'identifiant commun
+ * à toute la section s'il n'y en a qu'un, les hauteurs locales par (x, z) pour
+ * {@link ColumnHeightmap}, et l'index de ses blocs lumineux.
+ * <p>
+ * Enregistré avec la section compressée (voir {@code world.storage.ChunkCodec}) et rendu par
+ * {@link Chunk#getSummary()} tant que la section n'a pas été décodée : une modification passe
+ * forcément par le décodage, donc le résumé ne peut pas être périmé. Une section d'un seul bloc
+ * n'écrit pas ses hauteurs, elles se déduisent de l'identifiant.
+ */
+public final class SectionSummary {
+    private static final int AREA = Chunk.SIZE * Chunk.SIZE;
+    private static final int LAST = Chunk.SIZE - 1;
+    private static final int NONE = -1;
+
+    // Identifiant commun, ou -1 si la section en contient plusieurs
+    private final int uniformId;
+    // y local (0-15) par (x, z), ou -1 ; null si uniformId >= 0
+    private final byte[] highestOpaque;
+    private final byte[] highestNonAir;
+    private final short[] lightSources;
+
+    private SectionSummary(int uniformId, byte[] highestOpaque, byte[] highestNonAir, short[] lightSources) {
+        this.uniformId = uniformId;
+        this.highestOpaque = highestOpaque;
+        this.highestNonAir = highestNonAir;
+        this.lightSources = lightSources;
+    }
+
+    /**
+     * Résumé d'une section décodée. {@code scratch} reçoit le contenu décodé (au moins
+     * {@link BlockStorage#VOLUME} cases).
+     */
+    public static SectionSummary of(BlockStorage blocks, short[] lightSources, short[] scratch) {
+        int uniform = blocks.getUniformId();
+        if (uniform >= 0) return new SectionSummary(uniform, null, null, lightSources);
+
+        byte[] opaque = new byte[AREA];
+        byte[] nonAir = new byte[AREA];
+        Arrays.fill(opaque, (byte) NONE);
+        Arrays.fill(nonAir, (byte) NONE);
+        blocks.copyTo(scratch);
+        for (int i = 0; i < AREA; i++) {
+            for (int y = LAST; y >= 0; y--) {
+                int id = scratch[(y << 8) | i];
+                if (id == 0) continue;
+
+                if (nonAir[i] == NONE) nonAir[i] = (byte) y;
+                if (BlockRegistry.isOpaque(id)) {
+                    opaque[i] = (byte) y;
+                    break;
+                }
+            }
+        }
+        return new SectionSummary(NONE, opaque, nonAir, lightSources);
+    }
+
+    public int getUniformId() {
+        return uniformId;
+    }
+
+    // y local du plus haut bloc opaque de la case (index ColumnHeightmap.index), ou -1
+    public int getHighestOpaque(int i) {
+        if (highestOpaque != null) return highestOpaque[i];
+        return uniformId > 0 && BlockRegistry.isOpaque(uniformId) ? LAST : NONE;
+    }
+
+    public int getHighestNonAir(int i) {
+        if (highestNonAir != null) return highestNonAir[i];
+        return uniformId > 0 ? LAST : NONE;
+    }
+
+    // Index (voir BlockStorage.index) des blocs lumineux, à ne pas modifier
+    public short[] getLightSources() {
+        return lightSources;
+    }
+
+    /**
+     * Taille en octets de {@link #writeTo} : identifiant commun, hauteurs s'il n'y en a pas, sources.
+     */
+    public int serializedSize() {
+        return 2 + (uniformId < 0 ? AREA * 2 : 0) + 2 + lightSources.length * 2;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.putShort((short) uniformId);
+        if (uniformId < 0) {
+            out.put(highestOpaque).put(highestNonAir);
+        }
+        out.putShort((short) lightSources.length);
+        for (short source : lightSources) {
+            out.putShort(source);
+        }
+    }
+
+    /**
+     * Relit un résumé écrit par {@link #writeTo}. Des données tronquées ou hors limites donnent une
+     * {@link IOException}.
+     */
+    public static SectionSummary readFrom(ByteBuffer in) throws IOException {
+        if (in.remaining() < 2) throw new IOException("Résumé de section tronqué");
+        int uniform = in.getShort();
+        if (uniform < NONE || uniform >= BlockRegistry.size()) {
+            throw new IOException("Identifiant de bloc inconnu dans le résumé : " + uniform);
+        }
+
+        byte[] opaque = null, nonAir = null;
+        if (uniform == NONE) {
+            if (in.remaining() < AREA * 2) throw new IOException("Hauteurs de section tronquées");
+            opaque = new byte[AREA];
+            nonAir = new byte[AREA];
+            in.get(opaque).get(nonAir);
+            for (int i = 0; i < AREA; i++) {
+                if (opaque[i] < NONE || opaque[i] > LAST || nonAir[i] < opaque[i] || nonAir[i] > LAST) {
+                    throw new IOException("Hauteurs de section invalides en " + i);
+                }
+            }
+        }
+
+        if (in.remaining() < 2) throw new IOException("Résumé de section tronqué");
+        int count = in.getShort() & 0xFFFF;
+        if (count > BlockStorage.VOLUME || in.remaining() < count * 2) {
+            throw new IOException("Sources de lumière invalides : " + count);
+        }
+        short[] sources = new short[count];
+        for (int i = 0; i < count; i++) {
+            sources[i] = in.getShort();
+            if ((sources[i] & 0xFFFF) >= BlockStorage.VOLUME) {
+                throw new IOException("Source de lumière hors de la section : " + (sources[i] & 0xFFFF));
+            }
+        }
+        return new SectionSummary(uniform, opaque, nonAir, sources);
+    }
+}
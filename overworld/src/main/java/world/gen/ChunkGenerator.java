@@ -0,0 +1,17 @@
+package world.gen;
+
+import world.chunk.BlockStorage;
+
+/**
+ * Génère le contenu d'un chunk.
+ * <p>
+ * Une implémentation doit être déterministe (mêmes coordonnées, même résultat)
+ * et ne pas garder d'état modifiable partagé : plusieurs chunks sont générés en
+ * parallèle et le monde doit être identique quel que soit le nombre de threads.
+ */
+public interface ChunkGenerator {
+    /**
+     * Remplit directement le stockage vide du chunk (coordonnées de chunk).
+     */
+    void generate(int chunkX, int chunkY, int chunkZ, BlockStorage blocks);
+}
@@ -0,0 +1,75 @@
+package world.gen;
+
+import world.block.BlockRegistry;
+import world.chunk.BlockStorage;
+
+/**
+ * Terrain par carte de hauteur : un bruit fractal donne la hauteur de chaque colonne,
+ * la colonne est remplie de terre jusqu'à cette hauteur et couverte d'herbe.
+ */
+public class NoiseTerrainGenerator implements ChunkGenerator {
+    private static final int SIZE = BlockStorage.SIZE;
+
+    private final long seed;
+    private final int baseHeight;
+    private final int amplitude;
+    private final double frequency;
+
+    public NoiseTerrainGenerator(long seed) {
+        this(seed, 24, 16, 1.0 / 64);
+    }
+
+    public NoiseTerrainGenerator(long seed, int baseHeight, int amplitude, double frequency) {
+        this.seed = seed;
+        this.baseHeight = baseHeight;
+        this.amplitude = amplitude;
+        this.frequency = frequency;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Hauteur du terrain (y du premier bloc d'air) pour une colonne en coordonnées monde.
+     */
+    public int heightAt(int worldX, int worldZ) {
+        double n = PerlinNoise.fractal(seed, worldX * frequency, worldZ * frequency, 4, 2.0, 0.5);
+        return baseHeight + (int) Math.round(n * amplitude);
+    }
+
+    @Override
+    public void generate(int chunkX, int chunkY, int chunkZ, BlockStorage blocks) {
+        int minY = chunkY * SIZE;
+        int maxY = minY + SIZE;
+
+        // Hauteurs des 256 colonnes, puis remplissage direct du stockage
+        int[] heights = new int[SIZE * SIZE];
+        int lowest = Integer.MAX_VALUE;
+        int highest = Integer.MIN_VALUE;
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                int h = heightAt(chunkX * SIZE + x, chunkZ * SIZE + z);
+                heights[(z << 4) | x] = h;
+                lowest = Math.min(lowest, h);
+                highest = Math.max(highest, h);
+            }
+        }
+
+        if (highest <= minY) return; // chunk entièrement dans le ciel
+        if (lowest > maxY) {
+            blocks.fill(BlockRegistry.DEARTH); // chunk entièrement sous la surface
+            return;
+        }
+
+        for (int z = 0; z < SIZE; z++) {
+            for (int x = 0; x < SIZE; x++) {
+                int h = heights[(z << 4) | x];
+                int top = Math.min(h, maxY);
+                for (int y = minY; y < top; y++) {
+                    blocks.set(x, y - minY, z, y == h - 1 ? BlockRegistry.GRASS : BlockRegistry.DEARTH);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package world.gen;
+
+/**
+ * Bruit de gradient 2D (Perlin) sans état : la valeur ne dépend que de la graine et
+ * des coordonnées, les gradients étant tirés d'un hachage des coins de la grille.
+ * Peut donc être appelé depuis n'importe quel thread.
+ */
+final class PerlinNoise {
+    private static final double[] GRAD_X = {1, -1, 0, 0, 0.7071, -0.7071, 0.7071, -0.7071};
+    private static final double[] GRAD_Z = {0, 0, 1, -1, 0.7071, 0.7071, -0.7071, -0.7071};
+
+    private PerlinNoise() {}
+
+    // Valeur à peu près dans [-1, 1]
+    static double noise(long seed, double x, double z) {
+        int x0 = (int) Math.floor(x);
+        int z0 = (int) Math.floor(z);
+        double fx = x - x0;
+        double fz = z - z0;
+
+        double n00 = gradient(seed, x0, z0, fx, fz);
+        double n10 = gradient(seed, x0 + 1, z0, fx - 1, fz);
+        double n01 = gradient(seed, x0, z0 + 1, fx, fz - 1);
+        double n11 = gradient(seed, x0 + 1, z0 + 1, fx - 1, fz - 1);
+
+        double u = fade(fx);
+        double v = fade(fz);
+        return 1.4142 * lerp(v, lerp(u, n00, n10), lerp(u, n01, n11));
+    }
+
+    /**
+     * Somme de plusieurs octaves (fBm), normalisée dans [-1, 1].
+     */
+    static double fractal(long seed, double x, double z, int octaves, double lacunarity, double gain) {
+        double sum = 0;
+        double amplitude = 1;
+        double total = 0;
+
+        for (int i = 0; i < octaves; i++) {
+            sum += amplitude * noise(seed + i * 0x632BE59BD9B4E019L, x, z);
+            total += amplitude;
+            amplitude *= gain;
+            x *= lacunarity;
+            z *= lacunarity;
+        }
+        return sum / total;
+    }
+
+    private static double gradient(long seed, int x, int z, double dx, double dz) {
+        int g = hash(seed, x, z) & 7;
+        return GRAD_X[g] * dx + GRAD_Z[g] * dz;
+    }
+
+    private static int hash(long seed, int x, int z) {
+        long h = seed ^ (x * 0x9E3779B97F4A7C15L) ^ (z * 0xC2B2AE3D27D4EB4FL);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    private static double fade(double t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static double lerp(double t, double a, double b) {
+        return a + t * (b - a);
+    }
+}
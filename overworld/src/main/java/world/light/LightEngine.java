@@ -0,0 +1,395 @@
+package world.light;
+
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.block.Face;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+import world.chunk.ColumnHeightmap;
+import world.chunk.LightStorage;
+import world.chunk.SectionSummary;
+import world.util.IntQueue;
+import world.util.LongObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Propagation de la lumière par parcours en largeur, pour les deux canaux de {@link LightStorage}.
+ * <p>
+ * La lumière perd un niveau à chaque case traversée et s'arrête sur les blocs opaques ; la lumière
+ * du ciel à son maximum descend sans rien perdre. Les mises à jour sont incrémentales : une passe
+ * de retrait éteint ce qui dépendait d'une case modifiée et note les bords encore éclairés, puis
+ * une passe d'ajout rallume depuis ces bords et depuis les nouvelles sources. Seule la zone
+ * concernée est parcourue, à travers les frontières de chunks ; les chunks non chargés arrêtent
+ * la propagation.
+ * <p>
+ * Les files sont des tableaux d'int (x, y, z, et le niveau pour les retraits) réutilisés d'une
+ * mise à jour à l'autre. À utiliser depuis le thread qui écrit dans le monde.
+ */
+public class LightEngine {
+    private static final int TOP = WorldManager.HEIGHT_IN_CHUNKS * Chunk.SIZE;
+    private static final int LAST = Chunk.SIZE - 1;
+
+    private final WorldManager world;
+    // Une file par canal, indexées par LightStorage.SKY et LightStorage.BLOCK
+    private final IntQueue[] addQueues = {new IntQueue(), new IntQueue()};
+    private final IntQueue[] removeQueues = {new IntQueue(), new IntQueue()};
+    // Sections d'une colonne et plus bas y éclairé directement par le ciel, par (x, z), pour seedOpenSky
+    private final Chunk[] column = new Chunk[WorldManager.HEIGHT_IN_CHUNKS];
+    private final int[] skyFloor = new int[Chunk.SIZE * Chunk.SIZE];
+    private static final short[] NO_SOURCES = new short[0];
+
+    // Dernier chunk cherché par locate(), et case trouvée
+    private int cachedX, cachedY, cachedZ;
+    private Chunk cached;
+    private Chunk cellChunk;
+    private int cellIndex;
+    // Chunks à remailler pendant propagate()
+    private LongObjectMap<Chunk> changed;
+
+    public LightEngine(WorldManager world) {
+        this.world = world;
+    }
+
+    /**
+     * Prépare l'éclairage d'une section qui vient d'être ajoutée au monde : ciel direct si c'est la
+     * section du haut, blocs lumineux, et lumière des voisins chargés qui entre par les frontières.
+     * La lumière ne se propage qu'au prochain {@link #propagate}.
+     */
+    public void onSectionLoaded(Chunk chunk) {
+        invalidate();
+        ChunkCoord p = chunk.getPosition();
+        int baseX = p.x() << 4, baseY = p.y() << 4, baseZ = p.z() << 4;
+        LightStorage light = chunk.getLight();
+
+        if (p.y() == WorldManager.HEIGHT_IN_CHUNKS - 1) seedOpenSky(p.x(), p.z());
+
+        // Relevées par le thread de chargement quand la section vient de ChunkStreamingService
+        short[] sources = chunk.takeLightSources();
+        if (sources == null) sources = findLightSources(chunk);
+        for (short source : sources) {
+            int i = source & 0xFFFF;
+            light.set(LightStorage.BLOCK, i, BlockRegistry.getLightEmission(chunk.getBlockAt(i)));
+            pushAdd(LightStorage.BLOCK, baseX + (i & 0xF), baseY + (i >>> 8), baseZ + ((i >>> 4) & 0xF));
+        }
+
+        // Le ciel n'entre par les côtés qu'une fois la colonne couverte jusqu'en haut : sinon la
+        // section serait éclairée deux fois, de côté puis par le ciel direct de la section du haut
+        boolean capped = isCapped(p.x(), p.y(), p.z());
+        for (Face face : Face.VALUES) {
+            Chunk neighbour = world.getChunk(p.x() + face.dx, p.y() + face.dy, p.z() + face.dz);
+            if (neighbour != null) pushBorder(neighbour, face, face.dy != 0 || capped, true);
+        }
+        if (!capped) return;
+
+        // Les sections du dessous attendaient celle-ci pour recevoir le ciel de côté
+        for (int y = p.y() - 1; y >= 0; y--) {
+            if (world.getChunk(p.x(), y, p.z()) == null) break;
+
+            for (Face face : Face.VALUES) {
+                if (face.dy != 0) continue;
+
+                Chunk neighbour = world.getChunk(p.x() + face.dx, y, p.z() + face.dz);
+                if (neighbour != null) pushBorder(neighbour, face, true, false);
+            }
+        }
+    }
+
+    /**
+     * Comme {@link #findLightSources(BlockStorage)}, depuis le résumé d'une section encore
+     * compressée : elle n'est pas décodée.
+     */
+    public static short[] findLightSources(Chunk chunk) {
+        SectionSummary summary = chunk.getSummary();
+        return summary != null ? summary.getLightSources() : findLightSources(chunk.getBlocks());
+    }
+
+    /**
+     * Index des blocs lumineux d'une section. Sans état partagé : appelable depuis le thread de
+     * chargement, pour que l'ajout de la section au monde n'ait plus à parcourir ses blocs.
+     */
+    public static short[] findLightSources(BlockStorage blocks) {
+        if (!BlockRegistry.hasLightEmitters() || blocks.isEmpty()) return NO_SOURCES;
+
+        short[] sources = NO_SOURCES;
+        int count = 0;
+        for (int i = 0; i < BlockStorage.VOLUME; i++) {
+            if (BlockRegistry.getLightEmission(blocks.getAt(i)) == 0) continue;
+
+            if (count == sources.length) sources = Arrays.copyOf(sources, Math.max(16, count * 2));
+            sources[count++] = (short) i;
+        }
+        return count == sources.length ? sources : Arrays.copyOf(sources, count);
+    }
+
+    // Vrai si toutes les sections au-dessus de (chunkX, chunkY, chunkZ) sont chargées
+    private boolean isCapped(int chunkX, int chunkY, int chunkZ) {
+        for (int y = chunkY + 1; y < WorldManager.HEIGHT_IN_CHUNKS; y++) {
+            if (world.getChunk(chunkX, y, chunkZ) == null) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Met au maximum la lumière du ciel de chaque case à découvert de la colonne, en descendant
+     * dans ses sections chargées jusqu'au premier bloc opaque, donné par la carte de hauteur : aucun
+     * bloc n'est relu. Seules les cases qui peuvent éclairer
+     * une voisine plus sombre sont mises en file : au bord du chunk, ou à côté d'une colonne
+     * couverte plus haut. Le reste du ciel ouvert ne coûte rien au parcours.
+     */
+    private void seedOpenSky(int chunkX, int chunkZ) {
+        // Plus bas y des sections chargées sans trou depuis le haut
+        int bottom = TOP;
+        for (int y = column.length - 1; y >= 0; y--) {
+            column[y] = world.getChunk(chunkX, y, chunkZ);
+            if (column[y] == null) break;
+            bottom = y * Chunk.SIZE;
+        }
+        ColumnHeightmap heightmap = world.getHeightmap(chunkX, chunkZ);
+
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                // NONE + 1 = 0 : aucun bloc opaque, le ciel descend jusqu'en bas
+                int opaque = heightmap == null ? ColumnHeightmap.NONE : heightmap.getHighestOpaque(x, z);
+                int floor = Math.max(bottom, opaque + 1);
+                for (int y = floor; y < TOP; y++) {
+                    column[y >> 4].getLight().set(LightStorage.SKY, BlockStorage.index(x, y & 0xF, z), LightStorage.MAX);
+                }
+                skyFloor[(z << 4) | x] = floor;
+            }
+        }
+
+        int baseX = chunkX << 4, baseZ = chunkZ << 4;
+        for (int z = 0; z < Chunk.SIZE; z++) {
+            for (int x = 0; x < Chunk.SIZE; x++) {
+                int floor = skyFloor[(z << 4) | x];
+                boolean edge = x == 0 || x == LAST || z == 0 || z == LAST;
+                int shadedTop = edge ? TOP : Math.max(
+                        Math.max(skyFloor[(z << 4) | (x - 1)], skyFloor[(z << 4) | (x + 1)]),
+                        Math.max(skyFloor[((z - 1) << 4) | x], skyFloor[((z + 1) << 4) | x]));
+
+                for (int y = floor; y < shadedTop; y++) {
+                    pushAdd(LightStorage.SKY, baseX + x, y, baseZ + z);
+                }
+            }
+        }
+        Arrays.fill(column, null);
+    }
+
+    // Pousse les cases éclairées de la couche de {@code neighbour} collée au chunk situé du côté opposé à face
+    private void pushBorder(Chunk neighbour, Face face, boolean sky, boolean block) {
+        ChunkCoord p = neighbour.getPosition();
+        int baseX = p.x() << 4, baseY = p.y() << 4, baseZ = p.z() << 4;
+        LightStorage light = neighbour.getLight();
+
+        for (int b = 0; b < Chunk.SIZE; b++) {
+            for (int a = 0; a < Chunk.SIZE; a++) {
+                int x = face.dx > 0 ? 0 : face.dx < 0 ? LAST : a;
+                int y = face.dy > 0 ? 0 : face.dy < 0 ? LAST : (face.dx != 0 ? a : b);
+                int z = face.dz > 0 ? 0 : face.dz < 0 ? LAST : b;
+                int index = BlockStorage.index(x, y, z);
+
+                if (sky && light.getSky(index) > 1) {
+                    pushAdd(LightStorage.SKY, baseX + x, baseY + y, baseZ + z);
+                }
+                if (block && light.getBlock(index) > 1) {
+                    pushAdd(LightStorage.BLOCK, baseX + x, baseY + y, baseZ + z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Note le remplacement de {@code oldId} par {@code newId} en coordonnées monde. Rien n'est fait si
+     * l'opacité et l'émission de lumière sont inchangées. Plusieurs modifications peuvent être
+     * notées avant un seul {@link #propagate}.
+     */
+    public void onBlockChanged(int x, int y, int z, int oldId, int newId) {
+        invalidate();
+        boolean wasOpaque = BlockRegistry.isOpaque(oldId);
+        boolean opaque = BlockRegistry.isOpaque(newId);
+        int oldEmission = BlockRegistry.getLightEmission(oldId);
+        int emission = BlockRegistry.getLightEmission(newId);
+        if (wasOpaque == opaque && oldEmission == emission) return;
+        if (!locate(x, y, z)) return;
+
+        LightStorage light = cellChunk.getLight();
+        int index = cellIndex;
+
+        int blockLevel = light.getBlock(index);
+        if (blockLevel > 0) {
+            light.set(LightStorage.BLOCK, index, 0);
+            pushRemove(LightStorage.BLOCK, x, y, z, blockLevel);
+        }
+        if (emission > 0) {
+            light.set(LightStorage.BLOCK, index, emission);
+            pushAdd(LightStorage.BLOCK, x, y, z);
+        }
+
+        if (opaque) {
+            int skyLevel = light.getSky(index);
+            if (skyLevel > 0) {
+                light.set(LightStorage.SKY, index, 0);
+                pushRemove(LightStorage.SKY, x, y, z, skyLevel);
+            }
+        } else {
+            // Sous le ciel ouvert, la case reçoit directement le maximum
+            if (y == TOP - 1) {
+                light.set(LightStorage.SKY, index, LightStorage.MAX);
+                pushAdd(LightStorage.SKY, x, y, z);
+            }
+            pushNeighbours(LightStorage.SKY, x, y, z);
+            pushNeighbours(LightStorage.BLOCK, x, y, z);
+        }
+    }
+
+    /**
+     * Vide les files : retraits puis ajouts, canal par canal. Les chunks dont la lumière a changé,
+     * et leurs voisins qui touchent une case modifiée, sont ajoutés à {@code changed}.
+     */
+    public void propagate(LongObjectMap<Chunk> changed) {
+        invalidate();
+        this.changed = changed;
+        for (int channel = LightStorage.SKY; channel <= LightStorage.BLOCK; channel++) {
+            removePass(channel);
+            addPass(channel);
+        }
+        this.changed = null;
+        invalidate();
+    }
+
+    private void removePass(int channel) {
+        IntQueue queue = removeQueues[channel];
+        while (!queue.isEmpty()) {
+            int x = queue.pop(), y = queue.pop(), z = queue.pop(), level = queue.pop();
+
+            for (Face face : Face.VALUES) {
+                int nx = x + face.dx, ny = y + face.dy, nz = z + face.dz;
+                if (!locate(nx, ny, nz)) continue;
+
+                LightStorage light = cellChunk.getLight();
+                int neighbour = light.get(channel, cellIndex);
+                if (neighbour == 0) continue;
+
+                boolean skyColumn = channel == LightStorage.SKY && face == Face.DOWN && level == LightStorage.MAX;
+                if (neighbour < level || skyColumn) {
+                    // Éclairée par la case éteinte : on l'éteint à son tour
+                    light.set(channel, cellIndex, 0);
+                    touch(nx, ny, nz);
+                    pushRemove(channel, nx, ny, nz, neighbour);
+
+                    // Une source touchée par le retrait se rallume aussitôt
+                    int emission = channel == LightStorage.BLOCK
+                            ? BlockRegistry.getLightEmission(cellChunk.getBlockAt(cellIndex)) : 0;
+                    if (emission > 0) {
+                        light.set(channel, cellIndex, emission);
+                        pushAdd(channel, nx, ny, nz);
+                    }
+                } else {
+                    // Éclairée par ailleurs : elle rallumera ce qui vient d'être éteint
+                    pushAdd(channel, nx, ny, nz);
+                }
+            }
+        }
+    }
+
+    private void addPass(int channel) {
+        IntQueue queue = addQueues[channel];
+        while (!queue.isEmpty()) {
+            int x = queue.pop(), y = queue.pop(), z = queue.pop();
+            if (!locate(x, y, z)) continue;
+
+            int level = cellChunk.getLight().get(channel, cellIndex);
+            if (level <= 1) continue;
+
+            for (Face face : Face.VALUES) {
+                int nx = x + face.dx, ny = y + face.dy, nz = z + face.dz;
+                if (!locate(nx, ny, nz)) continue;
+                if (BlockRegistry.isOpaque(cellChunk.getBlockAt(cellIndex))) continue;
+
+                boolean skyColumn = channel == LightStorage.SKY && face == Face.DOWN && level == LightStorage.MAX;
+                int target = skyColumn ? LightStorage.MAX : level - 1;
+                LightStorage light = cellChunk.getLight();
+                if (light.get(channel, cellIndex) >= target) continue;
+
+                light.set(channel, cellIndex, target);
+                touch(nx, ny, nz);
+                pushAdd(channel, nx, ny, nz);
+            }
+        }
+    }
+
+    // Ses voisins éclairés rallumeront la case (x, y, z) qui vient de s'ouvrir
+    private void pushNeighbours(int channel, int x, int y, int z) {
+        for (Face face : Face.VALUES) {
+            int nx = x + face.dx, ny = y + face.dy, nz = z + face.dz;
+            if (locate(nx, ny, nz) && cellChunk.getLight().get(channel, cellIndex) > 0) {
+                pushAdd(channel, nx, ny, nz);
+            }
+        }
+    }
+
+    private void pushAdd(int channel, int x, int y, int z) {
+        IntQueue queue = addQueues[channel];
+        queue.push(x);
+        queue.push(y);
+        queue.push(z);
+    }
+
+    private void pushRemove(int channel, int x, int y, int z, int level) {
+        IntQueue queue = removeQueues[channel];
+        queue.push(x);
+        queue.push(y);
+        queue.push(z);
+        queue.push(level);
+    }
+
+    // Note le chunk de la case trouvée par locate(), et ses voisins dont les faces la touchent
+    private void touch(int x, int y, int z) {
+        if (changed == null) return;
+
+        Chunk chunk = cellChunk;
+        changed.put(chunk.getPosition().pack(), chunk);
+        int lx = x & 0xF, ly = y & 0xF, lz = z & 0xF;
+        if (lx == 0) touchChunk((x >> 4) - 1, y >> 4, z >> 4);
+        if (lx == LAST) touchChunk((x >> 4) + 1, y >> 4, z >> 4);
+        if (ly == 0) touchChunk(x >> 4, (y >> 4) - 1, z >> 4);
+        if (ly == LAST) touchChunk(x >> 4, (y >> 4) + 1, z >> 4);
+        if (lz == 0) touchChunk(x >> 4, y >> 4, (z >> 4) - 1);
+        if (lz == LAST) touchChunk(x >> 4, y >> 4, (z >> 4) + 1);
+    }
+
+    private void touchChunk(int chunkX, int chunkY, int chunkZ) {
+        Chunk chunk = world.getChunk(chunkX, chunkY, chunkZ);
+        if (chunk != null) changed.put(ChunkCoord.pack(chunkX, chunkY, chunkZ), chunk);
+    }
+
+    /**
+     * Trouve la case (x, y, z) : renseigne cellChunk et cellIndex, ou renvoie faux si elle est
+     * hors du monde ou dans un chunk non chargé. Le dernier chunk trouvé est gardé en cache.
+     */
+    private boolean locate(int x, int y, int z) {
+        if (y < 0 || y >= TOP) return false;
+
+        int chunkX = x >> 4, chunkY = y >> 4, chunkZ = z >> 4;
+        if (cached == null || chunkX != cachedX || chunkY != cachedY || chunkZ != cachedZ) {
+            Chunk chunk = world.getChunk(chunkX, chunkY, chunkZ);
+            if (chunk == null) return false;
+
+            cached = chunk;
+            cachedX = chunkX;
+            cachedY = chunkY;
+            cachedZ = chunkZ;
+        }
+        cellChunk = cached;
+        cellIndex = BlockStorage.index(x & 0xF, y & 0xF, z & 0xF);
+        return true;
+    }
+
+    // Le cache peut désigner un chunk déchargé depuis le dernier appel
+    private void invalidate() {
+        cached = null;
+        cellChunk = null;
+    }
+}
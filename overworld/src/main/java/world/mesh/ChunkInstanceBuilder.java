@@ -0,0 +1,58 @@
+package world.mesh;
+
+import world.WorldManager;
+import world.block.Face;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+/**
+ * Remplit le tampon d'instances d'un chunk pour le rendu instancié : une instance par bloc dont au
+ * moins une face est visible, les blocs enterrés sont écartés avec les masques d'occupation. Le GPU
+ * dessine ensuite le même cube unité ({@link #buildCube}) une fois par instance, en un seul appel
+ * par chunk. Code purement CPU : aucun appel OpenGL.
+ * <p>
+ * Une instance garde des tableaux de travail : il en faut une par thread.
+ */
+public class ChunkInstanceBuilder {
+    // Lumière et occlusion du cube partagé : ciel plein, coins dégagés
+    private static final int CUBE_LIGHT = 15 << 4;
+    private static final int CUBE_OCCLUSION = 0xFF;
+
+    private final short[] ids = new short[BlockStorage.VOLUME];
+    private final OccupancyMask mask = new OccupancyMask();
+
+    public void build(Chunk chunk, WorldManager world, InstanceBuffer out) {
+        out.reset();
+        if (OccupancyMask.isEnclosed(chunk, world)) return;
+
+        BlockStorage blocks = chunk.getBlocks();
+        if (blocks.isEmpty()) return;
+        blocks.copyTo(ids);
+        mask.build(chunk, ids, world);
+
+        for (int y = 0; y < BlockStorage.SIZE; y++) {
+            for (int z = 0; z < BlockStorage.SIZE; z++) {
+                int visible = 0;
+                for (Face face : Face.VALUES) {
+                    visible |= mask.visibleFaces(face, y, z);
+                }
+
+                while (visible != 0) {
+                    int x = Integer.numberOfTrailingZeros(visible) - 1;
+                    visible &= visible - 1;
+                    out.add(x, y, z, ids[BlockStorage.index(x, y, z)]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Cube unité de 0 à 1, au format de sommets de {@link MeshBuffer} : 6 quads, 24 sommets, 36 index.
+     */
+    public static void buildCube(MeshBuffer out) {
+        out.reset();
+        for (Face face : Face.VALUES) {
+            ChunkMesher.emitQuad(out, face, 0, 0, 0, 1, 1, 0, CUBE_LIGHT, CUBE_OCCLUSION);
+        }
+    }
+}
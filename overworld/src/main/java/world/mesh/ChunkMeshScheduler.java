@@ -0,0 +1,150 @@
+package world.mesh;
+
+import world.ChunkListener;
+import world.WorldManager;
+import world.chunk.Chunk;
+import world.util.BoundedQueue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Construit les maillages des chunks modifiés sur des threads de travail.
+ * <p>
+ * Les chunks à remailler sont mis en file (une seule fois tant qu'ils n'ont pas été pris),
+ * les maillages terminés reviennent par une file bornée sans verrou, et le thread de rendu
+ * récupère au plus ce qu'il veut envoyer au GPU à chaque image. Le nombre de constructions
+ * en cours ne dépasse jamais la capacité de la file de retour, donc un thread de travail
+ * n'a jamais à attendre de la place.
+ * <p>
+ * {@link #update()}, {@link #pollCompleted()} et {@link #release} sont appelées par le thread de rendu.
+ */
+public class ChunkMeshScheduler implements ChunkListener {
+
+    public record MeshResult(Chunk chunk, MeshBuffer mesh, int revision, int lod) {}
+
+    private final WorldManager world;
+    private final ExecutorService workers;
+    private final ThreadLocal<ChunkMesher> meshers;
+
+    private final ConcurrentLinkedQueue<Chunk> dirty = new ConcurrentLinkedQueue<>();
+    private final BoundedQueue<MeshResult> completed;
+    private final ConcurrentLinkedQueue<MeshBuffer> freeBuffers = new ConcurrentLinkedQueue<>();
+    private int inFlight;
+
+    public ChunkMeshScheduler(WorldManager world, ChunkMesher.Mode mode) {
+        // Un cœur reste au thread OpenGL
+        this(world, mode, Math.max(1, Runtime.getRuntime().availableProcessors() - 1), 64);
+    }
+
+    public ChunkMeshScheduler(WorldManager world, ChunkMesher.Mode mode, int workerCount, int maxInFlight) {
+        this.world = world;
+        this.completed = new BoundedQueue<>(maxInFlight);
+        this.meshers = ThreadLocal.withInitial(() -> new ChunkMesher(mode));
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "ChunkMesher-Thread");
+            t.setDaemon(true); // Thread daemon pour ne pas bloquer l'arrêt
+            return t;
+        });
+    }
+
+    public void markDirty(Chunk chunk) {
+        if (chunk != null && chunk.markMeshDirty()) {
+            dirty.add(chunk);
+        }
+    }
+
+    @Override
+    public void onChunkLoaded(Chunk chunk) {
+        markDirty(chunk);
+        markNeighborsDirty(chunk);
+    }
+
+    @Override
+    public void onChunkUnloaded(Chunk chunk) {
+        markNeighborsDirty(chunk);
+    }
+
+    @Override
+    public void onChunkChanged(Chunk chunk) {
+        markDirty(chunk);
+    }
+
+    // Les faces des voisins qui touchent ce chunk changent de visibilité, et l'occlusion ambiante
+    // lit aussi les voisins d'arête et de coin
+    private void markNeighborsDirty(Chunk chunk) {
+        int x = chunk.getPosition().x(), y = chunk.getPosition().y(), z = chunk.getPosition().z();
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    if (dx != 0 || dy != 0 || dz != 0) markDirty(world.getChunk(x + dx, y + dy, z + dz));
+                }
+            }
+        }
+    }
+
+    /**
+     * Lance la construction des chunks en attente, dans la limite de la capacité de retour.
+     */
+    public void update() {
+        Chunk chunk;
+        while (inFlight < completed.capacity() && (chunk = dirty.poll()) != null) {
+            // Effacé avant la construction : une modification pendant celle-ci remettra le chunk en file
+            chunk.clearMeshDirty();
+            if (world.getChunk(chunk.getPosition().x(), chunk.getPosition().y(), chunk.getPosition().z()) != chunk) {
+                continue; // déchargé entre temps
+            }
+
+            MeshBuffer buffer = freeBuffers.poll();
+            if (buffer == null) buffer = new MeshBuffer();
+
+            int revision = chunk.nextMeshRevision();
+            int lod = chunk.getMeshLod();
+            inFlight++;
+
+            final Chunk target = chunk;
+            final MeshBuffer out = buffer;
+            workers.execute(() -> build(target, out, revision, lod));
+        }
+    }
+
+    private void build(Chunk chunk, MeshBuffer out, int revision, int lod) {
+        try {
+            meshers.get().build(chunk, world, out, lod);
+        } catch (RuntimeException e) {
+            System.err.println("Erreur de maillage du chunk " + chunk.getPosition() + ": " + e.getMessage());
+            out.reset();
+        }
+        completed.offer(new MeshResult(chunk, out, revision, lod));
+    }
+
+    /**
+     * Renvoie le prochain maillage terminé et encore à jour, ou null. Chaque résultat
+     * renvoyé doit être rendu par {@link #release} une fois envoyé au GPU.
+     */
+    public MeshResult pollCompleted() {
+        MeshResult result;
+        while ((result = completed.poll()) != null) {
+            // Un maillage plus récent du même chunk a été demandé depuis : celui-ci est périmé
+            if (result.revision() == result.chunk().getMeshRevision()) {
+                return result;
+            }
+            release(result);
+        }
+        return null;
+    }
+
+    public void release(MeshResult result) {
+        inFlight--;
+        freeBuffers.add(result.mesh());
+    }
+
+    public int getPendingCount() {
+        return dirty.size() + inFlight;
+    }
+
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+}
@@ -0,0 +1,412 @@
+package world.mesh;
+
+import world.WorldManager;
+import world.block.Face;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+import java.util.Arrays;
+
+/**
+ * Construit le maillage d'un chunk entier dans un seul tampon de sommets et d'index,
+ * en coordonnées locales au chunk. Code purement CPU : aucun appel OpenGL.
+ * <p>
+ * Pour les chunks vus de loin, {@link #build(Chunk, WorldManager, MeshBuffer, int)} produit aussi
+ * des maillages simplifiés (niveaux de détail) à partir d'une grille réduite de 2, 4 ou 8 fois.
+ * <p>
+ * Une instance garde des tableaux de travail : il en faut une par thread.
+ */
+public class ChunkMesher {
+
+    public enum Mode {
+        // Un quad par face visible
+        CULLED,
+        // Les faces visibles coplanaires et identiques sont fusionnées en rectangles
+        GREEDY
+    }
+
+    // Pour chaque face : coin d'origine, axe s (u de la texture), axe t (v de la texture),
+    // et si l'ordre s puis t tourne dans le sens inverse de la normale
+    private static final int[][] ORIGIN = {
+            {0, 1, 0}, {0, 0, 0}, {1, 0, 0}, {0, 0, 0}, {0, 0, 1}, {0, 0, 0}
+    };
+    private static final int[][] S_AXIS = {
+            {1, 0, 0}, {1, 0, 0}, {0, 0, 1}, {0, 0, 1}, {1, 0, 0}, {1, 0, 0}
+    };
+    private static final int[][] T_AXIS = {
+            {0, 0, 1}, {0, 0, 1}, {0, 1, 0}, {0, 1, 0}, {0, 1, 0}, {0, 1, 0}
+    };
+    private static final boolean[] REVERSED = {true, false, true, false, false, true};
+
+    // Niveau de détail le plus grossier : cellules de 8 blocs
+    public static final int MAX_LOD = 3;
+    // Quatre coins dégagés (niveaux de détail : pas d'occlusion ambiante)
+    private static final int NO_OCCLUSION = 0xFF;
+
+    // Pas d'index linéaire (voir BlockStorage.index) le long de x, y et z
+    private static final int[] STRIDE = {1, BlockStorage.SIZE * BlockStorage.SIZE, BlockStorage.SIZE};
+    private static final int[] NORMAL_STRIDE = new int[6];
+    private static final int[] S_STRIDE = new int[6];
+    private static final int[] T_STRIDE = new int[6];
+
+    static {
+        for (Face face : Face.VALUES) {
+            int f = face.ordinal();
+            NORMAL_STRIDE[f] = STRIDE[axis(face.dx, face.dy, face.dz)];
+            S_STRIDE[f] = STRIDE[axis(S_AXIS[f][0], S_AXIS[f][1], S_AXIS[f][2])];
+            T_STRIDE[f] = STRIDE[axis(T_AXIS[f][0], T_AXIS[f][1], T_AXIS[f][2])];
+        }
+    }
+
+    private final Mode mode;
+    private final short[] ids = new short[BlockStorage.VOLUME];
+    // Faces à fusionner : identifiant du bloc sur 16 bits, lumière puis occlusion sur 8 bits chacune (0 = pas de face)
+    private final int[] faceKeys = new int[BlockStorage.VOLUME];
+    private final OccupancyMask mask = new OccupancyMask();
+    private final LightVolume light = new LightVolume();
+    // Grille réduite des niveaux de détail, au plus 8x8x8 cellules
+    private final short[] cells = new short[(BlockStorage.SIZE / 2) * (BlockStorage.SIZE / 2) * (BlockStorage.SIZE / 2)];
+
+    public ChunkMesher() {
+        this(Mode.CULLED);
+    }
+
+    public ChunkMesher(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Remplit {@code out} avec les faces visibles des blocs du chunk. Le tampon est vidé au préalable.
+     * Une face collée à un bloc opaque, y compris de l'autre côté d'une frontière de chunk, est omise.
+     */
+    public void build(Chunk chunk, WorldManager world, MeshBuffer out) {
+        build(chunk, world, out, 0);
+    }
+
+    /**
+     * Comme {@link #build(Chunk, WorldManager, MeshBuffer)} au niveau de détail {@code lod} :
+     * 0 pour le maillage complet, 1 à {@link #MAX_LOD} pour des cellules de 2, 4 ou 8 blocs de côté.
+     */
+    public void build(Chunk chunk, WorldManager world, MeshBuffer out, int lod) {
+        out.reset();
+        // Section enterrée : rien à mailler, et inutile de la décompresser pour le savoir
+        if (OccupancyMask.isEnclosed(chunk, world)) return;
+
+        BlockStorage blocks = chunk.getBlocks();
+        if (blocks.isEmpty()) return;
+        blocks.copyTo(ids);
+
+        mask.build(chunk, ids, world);
+        light.build(chunk, world);
+
+        if (lod > 0) {
+            buildLod(Math.min(lod, MAX_LOD), out);
+            return;
+        }
+
+        if (mode == Mode.GREEDY) {
+            buildGreedy(out);
+        } else {
+            buildCulled(out);
+        }
+    }
+
+    private void buildCulled(MeshBuffer out) {
+        for (int y = 0; y < BlockStorage.SIZE; y++) {
+            for (int z = 0; z < BlockStorage.SIZE; z++) {
+                for (Face face : Face.VALUES) {
+                    int visible = mask.visibleFaces(face, y, z);
+                    while (visible != 0) {
+                        int x = Integer.numberOfTrailingZeros(visible) - 1;
+                        visible &= visible - 1;
+                        emitQuad(out, face, x, y, z, 1, 1, ids[BlockStorage.index(x, y, z)],
+                                light.get(x + face.dx, y + face.dy, z + face.dz), ambientOcclusion(face, x, y, z));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Pour chaque direction et chaque tranche, fusionne les faces visibles d'un même bloc et
+     * d'une même lumière en rectangles : d'abord le long de l'axe s, puis ligne par ligne le long de l'axe t.
+     * La texture est répétée sur le rectangle grâce aux coordonnées u, v qui vont jusqu'à sa taille.
+     */
+    private void buildGreedy(MeshBuffer out) {
+        final int size = BlockStorage.SIZE;
+
+        for (Face face : Face.VALUES) {
+            if (!collectVisible(face)) continue;
+
+            int f = face.ordinal();
+            int ns = NORMAL_STRIDE[f], ss = S_STRIDE[f], ts = T_STRIDE[f];
+
+            for (int d = 0; d < size; d++) {
+                for (int b = 0; b < size; b++) {
+                    for (int a = 0; a < size; a++) {
+                        int i = d * ns + a * ss + b * ts;
+                        int key = faceKeys[i];
+                        if (key == 0) continue;
+
+                        int width = 1;
+                        while (a + width < size && faceKeys[i + width * ss] == key) {
+                            width++;
+                        }
+
+                        int height = 1;
+                        grow:
+                        while (b + height < size) {
+                            int row = i + height * ts;
+                            for (int k = 0; k < width; k++) {
+                                if (faceKeys[row + k * ss] != key) break grow;
+                            }
+                            height++;
+                        }
+
+                        for (int h = 0; h < height; h++) {
+                            for (int k = 0; k < width; k++) {
+                                faceKeys[i + h * ts + k * ss] = 0;
+                            }
+                        }
+
+                        emitQuad(out, face, i & 0xF, i >>> 8, (i >>> 4) & 0xF, width, height,
+                                key & 0xFFFF, (key >>> 16) & 0xFF, key >>> 24);
+                        a += width - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Maillage d'une grille réduite : une cellule de {@code 1 << lod} blocs de côté est pleine dès
+     * qu'elle contient un bloc, avec l'identifiant du plus haut d'entre eux (la surface vue de
+     * dessus). Pleine dès un bloc, la cellule ne laisse jamais de trou face à un voisin plus
+     * détaillé qui aurait masqué sa propre face. Au bord du chunk, une face n'est omise que si
+     * tous les blocs voisins qu'elle touche sont opaques : les fentes entre deux chunks de niveaux
+     * différents restent bouchées sans habiller les frontières enterrées. Les faces visibles sont
+     * ensuite fusionnées comme dans {@link #buildGreedy}, sur la grille réduite.
+     */
+    private void buildLod(int lod, MeshBuffer out) {
+        int scale = 1 << lod;
+        int n = BlockStorage.SIZE >> lod;
+        int[] strides = {1, n * n, n};
+
+        for (int cy = 0; cy < n; cy++) {
+            for (int cz = 0; cz < n; cz++) {
+                for (int cx = 0; cx < n; cx++) {
+                    cells[(cy * n + cz) * n + cx] = (short) topmostId(cx * scale, cy * scale, cz * scale, scale);
+                }
+            }
+        }
+
+        for (Face face : Face.VALUES) {
+            int f = face.ordinal();
+            int ns = strides[axis(face.dx, face.dy, face.dz)];
+            int ss = strides[axis(S_AXIS[f][0], S_AXIS[f][1], S_AXIS[f][2])];
+            int ts = strides[axis(T_AXIS[f][0], T_AXIS[f][1], T_AXIS[f][2])];
+            if (!collectVisibleCells(face, n, scale)) continue;
+
+            for (int d = 0; d < n; d++) {
+                for (int b = 0; b < n; b++) {
+                    for (int a = 0; a < n; a++) {
+                        int i = d * ns + a * ss + b * ts;
+                        int key = faceKeys[i];
+                        if (key == 0) continue;
+
+                        int width = 1;
+                        while (a + width < n && faceKeys[i + width * ss] == key) {
+                            width++;
+                        }
+
+                        int height = 1;
+                        grow:
+                        while (b + height < n) {
+                            int row = i + height * ts;
+                            for (int k = 0; k < width; k++) {
+                                if (faceKeys[row + k * ss] != key) break grow;
+                            }
+                            height++;
+                        }
+
+                        for (int h = 0; h < height; h++) {
+                            for (int k = 0; k < width; k++) {
+                                faceKeys[i + h * ts + k * ss] = 0;
+                            }
+                        }
+
+                        int cx = i % n, cz = (i / n) % n, cy = i / (n * n);
+                        emitQuad(out, face, cx * scale, cy * scale, cz * scale,
+                                width * scale, height * scale, scale, key & 0xFFFF, key >>> 16, NO_OCCLUSION);
+                        a += width - 1;
+                    }
+                }
+            }
+        }
+    }
+
+    // Comme collectVisible, pour les n³ cellules de la grille réduite
+    private boolean collectVisibleCells(Face face, int n, int scale) {
+        Arrays.fill(faceKeys, 0, n * n * n, 0);
+        boolean any = false;
+
+        for (int cy = 0; cy < n; cy++) {
+            for (int cz = 0; cz < n; cz++) {
+                for (int cx = 0; cx < n; cx++) {
+                    int i = (cy * n + cz) * n + cx;
+                    if (cells[i] == 0) continue;
+
+                    int nx = cx + face.dx, ny = cy + face.dy, nz = cz + face.dz;
+                    boolean border = nx < 0 || ny < 0 || nz < 0 || nx >= n || ny >= n || nz >= n;
+                    // Case juste devant le coin de la face, de l'autre côté de la cellule
+                    int bx = face.dx > 0 ? (cx + 1) * scale : face.dx < 0 ? cx * scale - 1 : cx * scale;
+                    int by = face.dy > 0 ? (cy + 1) * scale : face.dy < 0 ? cy * scale - 1 : cy * scale;
+                    int bz = face.dz > 0 ? (cz + 1) * scale : face.dz < 0 ? cz * scale - 1 : cz * scale;
+                    boolean hidden = border
+                            ? isBorderCovered(face, bx, by, bz, scale)
+                            : cells[(ny * n + nz) * n + nx] != 0;
+                    if (hidden) continue;
+
+                    faceKeys[i] = (cells[i] & 0xFFFF) | (light.get(bx, by, bz) << 16);
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    // Vrai si tous les blocs du chunk voisin collés à cette face de cellule, à partir de (bx, by, bz), sont opaques
+    private boolean isBorderCovered(Face face, int bx, int by, int bz, int scale) {
+        int f = face.ordinal();
+        int[] s = S_AXIS[f];
+        int[] t = T_AXIS[f];
+
+        for (int b = 0; b < scale; b++) {
+            for (int a = 0; a < scale; a++) {
+                int x = bx + s[0] * a + t[0] * b;
+                int y = by + s[1] * a + t[1] * b;
+                int z = bz + s[2] * a + t[2] * b;
+                if (!mask.isOpaque(x, y, z)) return false;
+            }
+        }
+        return true;
+    }
+
+    // Identifiant du plus haut bloc non vide de la cellule, 0 si elle est vide
+    private int topmostId(int x0, int y0, int z0, int scale) {
+        for (int y = y0 + scale - 1; y >= y0; y--) {
+            for (int z = z0; z < z0 + scale; z++) {
+                for (int x = x0; x < x0 + scale; x++) {
+                    int id = ids[BlockStorage.index(x, y, z)];
+                    if (id != 0) return id;
+                }
+            }
+        }
+        return 0;
+    }
+
+    // Recopie dans faceKeys l'identifiant et la lumière des blocs dont cette face est visible ; faux si aucune
+    private boolean collectVisible(Face face) {
+        Arrays.fill(faceKeys, 0);
+        boolean any = false;
+
+        for (int y = 0; y < BlockStorage.SIZE; y++) {
+            for (int z = 0; z < BlockStorage.SIZE; z++) {
+                int visible = mask.visibleFaces(face, y, z);
+                while (visible != 0) {
+                    int x = Integer.numberOfTrailingZeros(visible) - 1;
+                    visible &= visible - 1;
+                    int i = BlockStorage.index(x, y, z);
+                    faceKeys[i] = (ids[i] & 0xFFFF) | (light.get(x + face.dx, y + face.dy, z + face.dz) << 16)
+                            | (ambientOcclusion(face, x, y, z) << 24);
+                    any = true;
+                }
+            }
+        }
+        return any;
+    }
+
+    /**
+     * Émet un quad de {@code width} blocs le long de l'axe s et {@code height} blocs le long de l'axe t,
+     * avec la lumière {@code light} (voir {@link world.chunk.LightStorage#getPacked}) et l'occlusion
+     * {@code ao} de ses coins (voir {@link #ambientOcclusion}).
+     */
+    static void emitQuad(MeshBuffer out, Face face, int x, int y, int z, int width, int height,
+                         int id, int light, int ao) {
+        emitQuad(out, face, x, y, z, width, height, 1, id, light, ao);
+    }
+
+    // Variante pour un volume de {@code depth} blocs d'épaisseur le long de la normale (niveaux de détail)
+    static void emitQuad(MeshBuffer out, Face face, int x, int y, int z, int width, int height, int depth,
+                         int id, int light, int ao) {
+        int f = face.ordinal();
+        int[] o = ORIGIN[f];
+        int[] s = S_AXIS[f];
+        int[] t = T_AXIS[f];
+
+        int ox = x + o[0] * depth, oy = y + o[1] * depth, oz = z + o[2] * depth;
+        int sx = s[0] * width, sy = s[1] * width, sz = s[2] * width;
+        int tx = t[0] * height, ty = t[1] * height, tz = t[2] * height;
+
+        // Sur les côtés, v part du haut du bloc pour que l'image ne soit pas retournée
+        boolean side = ty != 0;
+        int v0 = side ? height : 0;
+        int v1 = side ? 0 : height;
+
+        // Occlusion des coins (s, t) = (0, 0), (1, 0), (0, 1), (1, 1)
+        int a00 = ao & 3, a10 = (ao >>> 2) & 3, a01 = (ao >>> 4) & 3, a11 = (ao >>> 6) & 3;
+
+        if (REVERSED[f]) {
+            // Sommets dans l'ordre (0, 0), (0, 1), (1, 1), (1, 0)
+            out.beginQuad(a00 + a11 < a01 + a10);
+            out.vertex(ox, oy, oz, f, 0, v0, id, light, a00);
+            out.vertex(ox + tx, oy + ty, oz + tz, f, 0, v1, id, light, a01);
+            out.vertex(ox + sx + tx, oy + sy + ty, oz + sz + tz, f, width, v1, id, light, a11);
+            out.vertex(ox + sx, oy + sy, oz + sz, f, width, v0, id, light, a10);
+        } else {
+            // Sommets dans l'ordre (0, 0), (1, 0), (1, 1), (0, 1)
+            out.beginQuad(a00 + a11 < a10 + a01);
+            out.vertex(ox, oy, oz, f, 0, v0, id, light, a00);
+            out.vertex(ox + sx, oy + sy, oz + sz, f, width, v0, id, light, a10);
+            out.vertex(ox + sx + tx, oy + sy + ty, oz + sz + tz, f, width, v1, id, light, a11);
+            out.vertex(ox + tx, oy + ty, oz + tz, f, 0, v1, id, light, a01);
+        }
+    }
+
+    /**
+     * Occlusion ambiante des quatre coins de la face d'un bloc, d'après les trois cases qui
+     * entourent chaque coin devant la face : les deux cases sur les côtés et celle en diagonale.
+     * 2 bits par coin, le coin (s, t) au rang {@code s + 2t}, de 0 (coin enfoncé) à 3 (dégagé).
+     * Deux faces au même motif se fusionnent sans changer le rendu : le motif se répète à l'identique.
+     */
+    private int ambientOcclusion(Face face, int x, int y, int z) {
+        int f = face.ordinal();
+        int[] s = S_AXIS[f];
+        int[] t = T_AXIS[f];
+        int fx = x + face.dx, fy = y + face.dy, fz = z + face.dz;
+
+        int pattern = 0;
+        for (int corner = 0; corner < 4; corner++) {
+            int ds = (corner & 1) == 0 ? -1 : 1;
+            int dt = (corner & 2) == 0 ? -1 : 1;
+            int sx = s[0] * ds, sy = s[1] * ds, sz = s[2] * ds;
+            int tx = t[0] * dt, ty = t[1] * dt, tz = t[2] * dt;
+
+            boolean side1 = mask.isOpaque(fx + sx, fy + sy, fz + sz);
+            boolean side2 = mask.isOpaque(fx + tx, fy + ty, fz + tz);
+            boolean diagonal = mask.isOpaque(fx + sx + tx, fy + sy + ty, fz + sz + tz);
+            // Deux côtés pleins ferment le coin, quelle que soit la diagonale
+            int level = side1 && side2 ? 0 : 3 - ((side1 ? 1 : 0) + (side2 ? 1 : 0) + (diagonal ? 1 : 0));
+            pattern |= level << (corner * 2);
+        }
+        return pattern;
+    }
+
+    private static int axis(int x, int y, int z) {
+        return x != 0 ? 0 : y != 0 ? 1 : 2;
+    }
+}
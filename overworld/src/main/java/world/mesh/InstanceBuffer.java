@@ -0,0 +1,69 @@
+package world.mesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Instances de blocs d'un chunk pour le rendu instancié : un int par bloc, en mémoire native
+ * pour être envoyé tel quel à OpenGL. Réutilisable d'un chunk à l'autre.
+ * <p>
+ * Format d'une instance ({@link #INSTANCE_SIZE} octets, un int) :
+ * <pre>
+ *  bits 0..3    x      (coordonnées locales au chunk)
+ *  bits 4..7    y
+ *  bits 8..11   z
+ *  bits 12..27  couche (identifiant du bloc, qui choisit sa texture)
+ * </pre>
+ */
+public class InstanceBuffer {
+    public static final int INSTANCE_SIZE = Integer.BYTES;
+    private static final int LAYER_SHIFT = 12;
+
+    private ByteBuffer instances;
+    private int count;
+
+    public InstanceBuffer() {
+        this(1024);
+    }
+
+    public InstanceBuffer(int initialInstances) {
+        instances = allocate(initialInstances * INSTANCE_SIZE);
+    }
+
+    public void reset() {
+        instances.clear();
+        count = 0;
+    }
+
+    public void add(int x, int y, int z, int layer) {
+        if (instances.remaining() < INSTANCE_SIZE) {
+            ByteBuffer bigger = allocate(instances.capacity() * 2);
+            instances.flip();
+            bigger.put(instances);
+            instances = bigger;
+        }
+        instances.putInt(pack(x, y, z, layer));
+        count++;
+    }
+
+    public static int pack(int x, int y, int z, int layer) {
+        return x | (y << 4) | (z << 8) | (layer << LAYER_SHIFT);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    // Vue prête à l'envoi (position 0, limite à la fin des données)
+    public ByteBuffer getInstances() {
+        return instances.slice(0, count * INSTANCE_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+}
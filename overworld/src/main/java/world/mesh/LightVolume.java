@@ -0,0 +1,61 @@
+package world.mesh;
+
+import world.WorldManager;
+import world.block.Face;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+import world.chunk.LightStorage;
+
+import java.util.Arrays;
+
+/**
+ * Lumière d'un chunk entourée de la couche d'un bloc prise chez ses six voisins, au format de
+ * {@link LightStorage#getPacked} (ciel dans les 4 bits de poids fort). Une face visible prend la
+ * lumière de la case devant elle, qui peut appartenir au voisin. Un voisin absent compte comme
+ * exposé au ciel, pour que les bords du monde chargé ne soient pas noirs.
+ */
+class LightVolume {
+    private static final int PADDED = BlockStorage.SIZE + 2;
+    private static final int LAST = BlockStorage.SIZE - 1;
+    private static final byte OPEN_SKY = (byte) (LightStorage.MAX << 4);
+
+    private final byte[] light = new byte[PADDED * PADDED * PADDED];
+
+    void build(Chunk chunk, WorldManager world) {
+        Arrays.fill(light, OPEN_SKY);
+
+        LightStorage center = chunk.getLight();
+        for (int i = 0; i < BlockStorage.VOLUME; i++) {
+            light[index(i & 0xF, i >>> 8, (i >>> 4) & 0xF)] = (byte) center.getPacked(i);
+        }
+
+        int cx = chunk.getPosition().x(), cy = chunk.getPosition().y(), cz = chunk.getPosition().z();
+        for (Face face : Face.VALUES) {
+            Chunk neighbour = world.getChunk(cx + face.dx, cy + face.dy, cz + face.dz);
+            if (neighbour == null) continue;
+
+            LightStorage border = neighbour.getLight();
+            for (int b = 0; b < BlockStorage.SIZE; b++) {
+                for (int a = 0; a < BlockStorage.SIZE; a++) {
+                    // Case du voisin collée au chunk, et sa place dans le volume bordé
+                    int x = face.dx > 0 ? 0 : face.dx < 0 ? LAST : a;
+                    int y = face.dy > 0 ? 0 : face.dy < 0 ? LAST : (face.dx != 0 ? a : b);
+                    int z = face.dz > 0 ? 0 : face.dz < 0 ? LAST : b;
+                    int px = face.dx > 0 ? BlockStorage.SIZE : face.dx < 0 ? -1 : x;
+                    int py = face.dy > 0 ? BlockStorage.SIZE : face.dy < 0 ? -1 : y;
+                    int pz = face.dz > 0 ? BlockStorage.SIZE : face.dz < 0 ? -1 : z;
+                    light[index(px, py, pz)] = (byte) border.getPacked(BlockStorage.index(x, y, z));
+                }
+            }
+        }
+    }
+
+    // Coordonnées locales de -1 à 16
+    int get(int x, int y, int z) {
+        return light[index(x, y, z)] & 0xFF;
+    }
+
+    private static int index(int x, int y, int z) {
+        return ((y + 1) * PADDED + (z + 1)) * PADDED + (x + 1);
+    }
+}
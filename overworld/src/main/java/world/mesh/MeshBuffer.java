@@ -0,0 +1,125 @@
+package world.mesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Tampons de sommets et d'index d'un maillage de chunk, en mémoire native
+ * pour être envoyés tels quels à OpenGL. Réutilisable d'un maillage à l'autre.
+ * <p>
+ * Format d'un sommet ({@link #VERTEX_SIZE} octets) :
+ * <pre>
+ *  0..2  x, y, z   (octets non signés, coordonnées locales au chunk 0-16)
+ *  3     face      (ordinal de {@link world.block.Face})
+ *  4..5  u, v      (octets non signés, répétition de la texture)
+ *  6..7  bloc      (short, identifiant du {@link world.block.BlockRegistry})
+ *  8     lumière   (ciel dans les 4 bits de poids fort, blocs dans les 4 autres)
+ *  9     occlusion (ambiante, de 0 pour un coin enfoncé à 3 pour un coin dégagé)
+ *  10..11 réservés (alignement des sommets sur 4 octets)
+ * </pre>
+ * Les index sont des int, six par quad.
+ */
+public class MeshBuffer {
+    public static final int VERTEX_SIZE = 12;
+    public static final int POSITION_OFFSET = 0;
+    public static final int FACE_OFFSET = 3;
+    public static final int UV_OFFSET = 4;
+    public static final int BLOCK_OFFSET = 6;
+    public static final int LIGHT_OFFSET = 8;
+    public static final int OCCLUSION_OFFSET = 9;
+
+    private ByteBuffer vertices;
+    private ByteBuffer indices;
+    private int vertexCount;
+    private int indexCount;
+
+    public MeshBuffer() {
+        this(1024);
+    }
+
+    public MeshBuffer(int initialQuads) {
+        vertices = allocate(initialQuads * 4 * VERTEX_SIZE);
+        indices = allocate(initialQuads * 6 * Integer.BYTES);
+    }
+
+    public void reset() {
+        vertices.clear();
+        indices.clear();
+        vertexCount = 0;
+        indexCount = 0;
+    }
+
+    /**
+     * Réserve la place d'un quad complet (4 sommets, 6 index).
+     */
+    public void beginQuad() {
+        beginQuad(false);
+    }
+
+    /**
+     * Comme {@link #beginQuad()}, en coupant le quad selon la diagonale 1-3 plutôt que 0-2 si
+     * {@code flipped} : l'occlusion interpolée reste symétrique quand un seul coin est sombre.
+     */
+    public void beginQuad(boolean flipped) {
+        if (vertices.remaining() < 4 * VERTEX_SIZE) {
+            vertices = grow(vertices);
+        }
+        if (indices.remaining() < 6 * Integer.BYTES) {
+            indices = grow(indices);
+        }
+
+        int base = vertexCount;
+        if (flipped) {
+            indices.putInt(base + 1).putInt(base + 2).putInt(base + 3);
+            indices.putInt(base + 1).putInt(base + 3).putInt(base);
+        } else {
+            indices.putInt(base).putInt(base + 1).putInt(base + 2);
+            indices.putInt(base).putInt(base + 2).putInt(base + 3);
+        }
+        indexCount += 6;
+    }
+
+    public void vertex(int x, int y, int z, int face, int u, int v, int blockId, int light, int occlusion) {
+        vertices.put((byte) x).put((byte) y).put((byte) z).put((byte) face);
+        vertices.put((byte) u).put((byte) v);
+        vertices.putShort((short) blockId);
+        vertices.put((byte) light).put((byte) occlusion).put((byte) 0).put((byte) 0);
+        vertexCount++;
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public int getQuadCount() {
+        return indexCount / 6;
+    }
+
+    public boolean isEmpty() {
+        return indexCount == 0;
+    }
+
+    // Vues prêtes à l'envoi (position 0, limite à la fin des données)
+    public ByteBuffer getVertices() {
+        return vertices.slice(0, vertexCount * VERTEX_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    public ByteBuffer getIndices() {
+        return indices.slice(0, indexCount * Integer.BYTES).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer bigger = allocate(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+}
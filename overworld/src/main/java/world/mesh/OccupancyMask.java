@@ -0,0 +1,175 @@
+package world.mesh;
+
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.block.Face;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+import java.util.Arrays;
+
+/**
+ * Masques d'occupation d'un chunk entouré d'une couche d'un bloc prise chez ses 26 voisins.
+ * <p>
+ * Chaque rangée (y, z) tient dans un int : le bit {@code x + 1} correspond au bloc x,
+ * les bits 0 et 17 aux blocs des chunks voisins en x. La visibilité d'une face se
+ * calcule alors pour 16 blocs d'un coup avec des décalages et des masques, sans
+ * aucune recherche dans une table de hachage.
+ */
+public class OccupancyMask {
+    static final int PADDED = BlockStorage.SIZE + 2;
+    static final int CENTER_BITS = 0xFFFF << 1;
+
+    private static final int LAST = BlockStorage.SIZE - 1;
+
+    // Blocs opaques, chunk + bordure : rangée (y + 1) * PADDED + (z + 1)
+    private final int[] opaque = new int[PADDED * PADDED];
+    // Blocs à mailler, chunk seul, même disposition des bits
+    private final int[] rendered = new int[BlockStorage.SIZE * BlockStorage.SIZE];
+
+    /**
+     * Remplit les masques à partir des identifiants décodés du chunk ({@code ids}) et
+     * des cases frontières de ses voisins. Un voisin absent compte comme de l'air.
+     */
+    public void build(Chunk chunk, short[] ids, WorldManager world) {
+        Arrays.fill(opaque, 0);
+        Arrays.fill(rendered, 0);
+
+        for (int i = 0; i < BlockStorage.VOLUME; i++) {
+            int id = ids[i];
+            if (id == 0) continue;
+
+            int x = i & 0xF;
+            int y = i >>> 8;
+            int z = (i >>> 4) & 0xF;
+            int bit = 1 << (x + 1);
+            if (BlockRegistry.isOpaque(id)) opaque[row(y, z)] |= bit;
+            if (BlockRegistry.isRendered(id)) rendered[(y << 4) | z] |= bit;
+        }
+
+        int cx = chunk.getPosition().x();
+        int cy = chunk.getPosition().y();
+        int cz = chunk.getPosition().z();
+
+        Chunk east = world.getChunk(cx + 1, cy, cz);
+        Chunk west = world.getChunk(cx - 1, cy, cz);
+        Chunk up = world.getChunk(cx, cy + 1, cz);
+        Chunk down = world.getChunk(cx, cy - 1, cz);
+        Chunk south = world.getChunk(cx, cy, cz + 1);
+        Chunk north = world.getChunk(cx, cy, cz - 1);
+
+        for (int a = 0; a <= LAST; a++) {
+            for (int b = 0; b <= LAST; b++) {
+                // a et b parcourent le plan de la frontière
+                if (east != null && isOpaque(east, 0, a, b)) opaque[row(a, b)] |= 1 << (PADDED - 1);
+                if (west != null && isOpaque(west, LAST, a, b)) opaque[row(a, b)] |= 1;
+                if (up != null && isOpaque(up, a, 0, b)) opaque[row(BlockStorage.SIZE, b)] |= 1 << (a + 1);
+                if (down != null && isOpaque(down, a, LAST, b)) opaque[row(-1, b)] |= 1 << (a + 1);
+                if (south != null && isOpaque(south, a, b, 0)) opaque[row(b, BlockStorage.SIZE)] |= 1 << (a + 1);
+                if (north != null && isOpaque(north, a, b, LAST)) opaque[row(b, -1)] |= 1 << (a + 1);
+            }
+        }
+
+        buildEdges(cx, cy, cz, world);
+    }
+
+    /**
+     * Arêtes et coins de la bordure, pris chez les 12 voisins par une arête et les 8 voisins par un
+     * coin. Seule l'occlusion ambiante des sommets les lit.
+     */
+    private void buildEdges(int cx, int cy, int cz, WorldManager world) {
+        for (int dy = -1; dy <= 1; dy++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    if ((dx != 0 ? 1 : 0) + (dy != 0 ? 1 : 0) + (dz != 0 ? 1 : 0) < 2) continue;
+
+                    Chunk chunk = world.getChunk(cx + dx, cy + dy, cz + dz);
+                    if (chunk == null) continue;
+
+                    // Un coin n'a qu'une case, une arête en a 16 le long de l'axe resté à 0
+                    int length = dx != 0 && dy != 0 && dz != 0 ? 1 : BlockStorage.SIZE;
+                    for (int k = 0; k < length; k++) {
+                        int x = dx > 0 ? 0 : dx < 0 ? LAST : k;
+                        int y = dy > 0 ? 0 : dy < 0 ? LAST : k;
+                        int z = dz > 0 ? 0 : dz < 0 ? LAST : k;
+                        if (!isOpaque(chunk, x, y, z)) continue;
+
+                        int px = dx > 0 ? BlockStorage.SIZE : dx < 0 ? -1 : k;
+                        int py = dy > 0 ? BlockStorage.SIZE : dy < 0 ? -1 : k;
+                        int pz = dz > 0 ? BlockStorage.SIZE : dz < 0 ? -1 : k;
+                        opaque[row(py, pz)] |= 1 << (px + 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Bits (décalés de 1, comme les rangées) des blocs de la rangée (y, z) dont la face est visible.
+     */
+    public int visibleFaces(Face face, int y, int z) {
+        int self = rendered[(y << 4) | z];
+        if (self == 0) return 0;
+
+        int row = opaque[row(y, z)];
+        int hidden = switch (face) {
+            case EAST -> row >>> 1;
+            case WEST -> row << 1;
+            case UP -> opaque[row(y + 1, z)];
+            case DOWN -> opaque[row(y - 1, z)];
+            case SOUTH -> opaque[row(y, z + 1)];
+            case NORTH -> opaque[row(y, z - 1)];
+        };
+        return self & ~hidden & CENTER_BITS;
+    }
+
+    /**
+     * Vrai si le chunk est plein d'un même bloc opaque et que la couche de chacun de ses six voisins
+     * qui le touche est opaque : aucune face n'est visible, le maillage est vide. Une section
+     * compressée d'un seul bloc répond sur son résumé, sans être décodée.
+     */
+    public static boolean isEnclosed(Chunk chunk, WorldManager world) {
+        if (!isOpaqueSolid(chunk)) return false;
+
+        ChunkCoord p = chunk.getPosition();
+        for (Face face : Face.VALUES) {
+            Chunk neighbour = world.getChunk(p.x() + face.dx, p.y() + face.dy, p.z() + face.dz);
+            if (neighbour == null || !isOpaqueLayer(neighbour, face)) return false;
+        }
+        return true;
+    }
+
+    // Couche de neighbour collée au chunk situé du côté opposé à face
+    private static boolean isOpaqueLayer(Chunk neighbour, Face face) {
+        if (isOpaqueSolid(neighbour)) return true;
+
+        for (int b = 0; b <= LAST; b++) {
+            for (int a = 0; a <= LAST; a++) {
+                int x = face.dx > 0 ? 0 : face.dx < 0 ? LAST : a;
+                int y = face.dy > 0 ? 0 : face.dy < 0 ? LAST : (face.dx != 0 ? a : b);
+                int z = face.dz > 0 ? 0 : face.dz < 0 ? LAST : b;
+                if (!isOpaque(neighbour, x, y, z)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isOpaqueSolid(Chunk chunk) {
+        int id = chunk.getUniformId();
+        return id > 0 && BlockRegistry.isOpaque(id);
+    }
+
+    public boolean isOpaque(int x, int y, int z) {
+        return (opaque[row(y, z)] & (1 << (x + 1))) != 0;
+    }
+
+    // Une section compressée d'un seul bloc répond sans être décodée (voir Chunk.getBlock)
+    private static boolean isOpaque(Chunk chunk, int x, int y, int z) {
+        return BlockRegistry.isOpaque(chunk.getBlock(x, y, z));
+    }
+
+    private static int row(int y, int z) {
+        return (y + 1) * PADDED + (z + 1);
+    }
+}
@@ -0,0 +1,191 @@
+package world.storage;
+
+import world.ChunkCoord;
+import world.ChunkListener;
+import world.WorldManager;
+import world.chunk.Chunk;
+import world.util.LongObjectMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sauvegarde automatique des chunks modifiés.
+ * <p>
+ * {@link #update()} tourne sur le thread du monde : à chaque intervalle, il prend un instantané
+ * en copie sur écriture de chaque chunk marqué à sauvegarder, ce qui ne copie aucun bloc.
+ * L'encodage et l'écriture dans les régions se font ensuite sur un thread d'entrées/sorties
+ * dédié : la boucle de jeu n'attend jamais le disque. Les chunks modifiés qui sont déchargés
+ * sont sauvegardés au tour suivant, sans attendre l'intervalle.
+ * <p>
+ * Les sections d'une colonne qui n'ont pas changé sont relues depuis la sauvegarde pour
+ * réécrire la colonne entière.
+ */
+public class AutosaveService implements ChunkListener, AutoCloseable {
+    private final WorldManager world;
+    private final RegionStorage storage;
+    private final int intervalTicks;
+    private final ExecutorService executor;
+
+    private long lastSaveTick;
+    // Instantanés des chunks modifiés puis déchargés, par colonne (thread du monde)
+    private LongObjectMap<Chunk[]> unloaded = new LongObjectMap<>();
+
+    // Métriques de la dernière sauvegarde, écrites par le thread d'entrées/sorties
+    private volatile long lastSnapshotNanos;
+    private volatile long lastWriteNanos;
+    private volatile long lastBytesWritten;
+    private volatile int lastColumnCount;
+    private volatile long totalBytesWritten;
+    private volatile int saveCount;
+
+    public AutosaveService(WorldManager world, RegionStorage storage, int intervalTicks) {
+        this.world = world;
+        this.storage = storage;
+        this.intervalTicks = intervalTicks;
+        this.lastSaveTick = world.getTick();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Autosave-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * À appeler à chaque tick depuis le thread du monde.
+     */
+    public void update() {
+        if (world.getTick() - lastSaveTick >= intervalTicks) {
+            lastSaveTick = world.getTick();
+            saveNow();
+        } else if (!unloaded.isEmpty()) {
+            submit(takeUnloaded(), 0);
+        }
+    }
+
+    /**
+     * Prend les instantanés de tous les chunks modifiés et les envoie au thread d'écriture.
+     */
+    public void saveNow() {
+        long start = System.nanoTime();
+        LongObjectMap<Chunk[]> columns = takeUnloaded();
+        world.getLoadedChunk().forEachValue(chunk -> {
+            if (!chunk.isSaveDirty()) return;
+
+            chunk.clearSaveDirty();
+            addSnapshot(columns, chunk.snapshot());
+        });
+        submit(columns, System.nanoTime() - start);
+    }
+
+    @Override
+    public void onChunkUnloaded(Chunk chunk) {
+        if (!chunk.isSaveDirty()) return;
+
+        chunk.clearSaveDirty();
+        addSnapshot(unloaded, chunk.snapshot());
+    }
+
+    private static void addSnapshot(LongObjectMap<Chunk[]> columns, Chunk snapshot) {
+        ChunkCoord position = snapshot.getPosition();
+        if (position.y() < 0 || position.y() >= WorldManager.HEIGHT_IN_CHUNKS) return;
+
+        long key = ChunkCoord.pack(position.x(), 0, position.z());
+        Chunk[] column = columns.get(key);
+        if (column == null) {
+            column = new Chunk[WorldManager.HEIGHT_IN_CHUNKS];
+            columns.put(key, column);
+        }
+        column[position.y()] = snapshot;
+    }
+
+    private LongObjectMap<Chunk[]> takeUnloaded() {
+        LongObjectMap<Chunk[]> taken = unloaded;
+        unloaded = new LongObjectMap<>();
+        return taken;
+    }
+
+    private void submit(LongObjectMap<Chunk[]> columns, long snapshotNanos) {
+        if (columns.isEmpty()) return;
+        executor.execute(() -> write(columns, snapshotNanos));
+    }
+
+    // Thread d'entrées/sorties
+    private void write(LongObjectMap<Chunk[]> columns, long snapshotNanos) {
+        long start = System.nanoTime();
+        long[] bytes = {0};
+        columns.forEach((key, sections) -> bytes[0] += writeColumn(ChunkCoord.unpackX(key), ChunkCoord.unpackZ(key), sections));
+        storage.flush();
+
+        lastSnapshotNanos = snapshotNanos;
+        lastWriteNanos = System.nanoTime() - start;
+        lastBytesWritten = bytes[0];
+        lastColumnCount = columns.size();
+        totalBytesWritten += bytes[0];
+        saveCount++;
+        System.out.printf("Sauvegarde : %d colonnes, %d octets en %.1f ms (instantanés %.3f ms)%n",
+                lastColumnCount, lastBytesWritten, lastWriteNanos / 1e6, lastSnapshotNanos / 1e6);
+    }
+
+    private int writeColumn(int chunkX, int chunkZ, Chunk[] sections) {
+        try {
+            Chunk[] base = null;
+            for (int y = 0; y < sections.length; y++) {
+                if (sections[y] != null) continue;
+                if (base == null) base = world.loadColumn(chunkX, chunkZ);
+                sections[y] = base[y];
+            }
+
+            ByteBuffer data = ChunkCodec.encodeColumn(sections);
+            int size = data.remaining();
+            storage.write(chunkX, chunkZ, data);
+            return size;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur de sauvegarde de la colonne " + chunkX + "," + chunkZ + ": " + e.getMessage());
+            return 0;
+        }
+    }
+
+    public long getLastSnapshotNanos() {
+        return lastSnapshotNanos;
+    }
+
+    public long getLastWriteNanos() {
+        return lastWriteNanos;
+    }
+
+    public long getLastBytesWritten() {
+        return lastBytesWritten;
+    }
+
+    public int getLastColumnCount() {
+        return lastColumnCount;
+    }
+
+    public long getTotalBytesWritten() {
+        return totalBytesWritten;
+    }
+
+    public int getSaveCount() {
+        return saveCount;
+    }
+
+    /**
+     * Sauvegarde tout ce qui reste et attend la fin des écritures. Thread du monde.
+     */
+    @Override
+    public void close() {
+        saveNow();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                System.err.println("Sauvegarde interrompue : délai dépassé");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package world.storage;
+
+import world.WorldManager;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sauvegardes périodiques du monde avec {@link WorldBackup}, sur un thread dédié.
+ * <p>
+ * {@link #update()} tourne sur le thread du monde et ne fait que lancer une sauvegarde toutes
+ * les {@code intervalTicks} : le journal est d'abord reporté dans les régions, puis toutes les
+ * colonnes sont copiées (chacune sous le verrou de sa région) et seules les {@code keep}
+ * sauvegardes les plus récentes sont gardées. Une sauvegarde encore en cours n'est pas doublée.
+ * La fermeture n'en lance aucune : elle attend seulement celle en cours.
+ */
+public class BackupService implements AutoCloseable {
+    private final WorldManager world;
+    private final RegionStorage storage;
+    private final WorldBackup backup;
+    private final int intervalTicks;
+    private final int keep;
+    private final ExecutorService executor;
+
+    private long lastBackupTick;
+    private volatile boolean running;
+
+    public BackupService(WorldManager world, RegionStorage storage, WorldBackup backup, int intervalTicks, int keep) {
+        this.world = world;
+        this.storage = storage;
+        this.backup = backup;
+        this.intervalTicks = intervalTicks;
+        this.keep = keep;
+        this.lastBackupTick = world.getTick();
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Backup-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * À appeler à chaque tick depuis le thread du monde.
+     */
+    public void update() {
+        if (world.getTick() - lastBackupTick < intervalTicks) return;
+
+        lastBackupTick = world.getTick();
+        backupNow();
+    }
+
+    // Lance une sauvegarde, sauf si la précédente n'est pas terminée
+    public void backupNow() {
+        if (running) return;
+
+        running = true;
+        executor.execute(this::run);
+    }
+
+    // Thread de sauvegarde
+    private void run() {
+        try {
+            EditJournal journal = world.getJournal();
+            if (journal != null) journal.compact();
+
+            WorldBackup.Result result = backup.backup(storage);
+            int pruned = backup.prune(keep);
+            System.out.printf("Sauvegarde %s : %d colonnes, %d nouvelles (%d octets) en %.1f ms, %d anciennes supprimées%n",
+                    result.name(), result.columns(), result.newObjects(), result.bytesWritten(), result.nanos() / 1e6, pruned);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur de sauvegarde du monde: " + e.getMessage());
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Attend la sauvegarde en cours, sans en lancer de nouvelle. Thread du monde.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+                System.err.println("Sauvegarde du monde interrompue : délai dépassé");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
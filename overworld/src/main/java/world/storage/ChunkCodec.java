@@ -0,0 +1,237 @@
+package world.storage;
+
+import world.ChunkCoord;
+import world.WorldManager;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+import world.chunk.SectionSummary;
+import world.gen.ChunkGenerator;
+import world.light.LightEngine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodage d'une colonne de chunks pour le disque.
+ * <p>
+ * Format (gros-boutiste) :
+ * <pre>
+ *  int    MAGIC
+ *  byte   VERSION
+ *  byte   nombre de sections présentes
+ *  puis, pour chaque section non vide :
+ *    byte   y de la section
+ *    int    taille décompressée
+ *    int    taille compressée
+ *    byte[] palette + index compactés (voir BlockStorage.writeTo), compressés en Deflate rapide
+ *    byte[] résumé non compressé (voir SectionSummary.writeTo), absent en version 1
+ * </pre>
+ * Les sections vides ne sont pas écrites. Au décodage, chaque section garde ses octets
+ * compressés et n'est décompressée qu'au premier accès à ses blocs ; d'ici là, son résumé suffit
+ * aux cartes de hauteur, à la lumière et aux sections pleines d'un seul bloc. Une section encore
+ * compressée est réécrite telle quelle, sans être décodée.
+ * <p>
+ * Un en-tête ou un résumé abîmé donne une {@link IOException}. Une section dont le flux Deflate ou
+ * le contenu est abîmé n'est découverte qu'au décodage : elle est alors régénérée par le
+ * générateur de secours s'il y en a un, sinon le décodage lève une {@link IllegalStateException}.
+ */
+public final class ChunkCodec {
+    public static final int MAGIC = 0x49534F43; // "ISOC"
+    public static final byte VERSION = 2;
+    // Sections sans résumé : toujours lisibles, décodées dès qu'on en a besoin
+    private static final byte VERSION_WITHOUT_SUMMARY = 1;
+    // Plus grande sortie de BlockStorage.writeTo : largeur, taille de palette, palette pleine, ids directs
+    private static final int MAX_RAW_SIZE = 1 + 2 + 256 * 2 + BlockStorage.VOLUME * 2;
+
+    // Deflater et Inflater réservent de la mémoire native : un seul de chaque par thread
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(() -> new Deflater(Deflater.BEST_SPEED));
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private ChunkCodec() {}
+
+    /**
+     * Encode une colonne (index du tableau = y du chunk). Les cases nulles ou vides sont ignorées.
+     */
+    public static ByteBuffer encodeColumn(Chunk[] column) {
+        byte[][] compressed = new byte[column.length][];
+        int[] rawSizes = new int[column.length];
+        SectionSummary[] summaries = new SectionSummary[column.length];
+        short[] scratch = null;
+        int total = 4 + 1 + 1;
+        int count = 0;
+
+        for (int y = 0; y < column.length; y++) {
+            Chunk chunk = column[y];
+            if (chunk == null) continue;
+
+            // Jamais décodée depuis son chargement : les mêmes octets, sans passer par les blocs
+            if (chunk.getPendingLoad() instanceof CompressedSection section && section.summary != null) {
+                compressed[y] = section.compressed;
+                rawSizes[y] = section.rawSize;
+                summaries[y] = section.summary;
+            } else {
+                BlockStorage blocks = chunk.getBlocks();
+                if (blocks.isEmpty()) continue;
+
+                ByteBuffer raw = ByteBuffer.allocate(blocks.serializedSize());
+                blocks.writeTo(raw);
+                rawSizes[y] = raw.position();
+                compressed[y] = deflate(raw.array(), rawSizes[y]);
+                if (scratch == null) scratch = new short[BlockStorage.VOLUME];
+                summaries[y] = SectionSummary.of(blocks, LightEngine.findLightSources(blocks), scratch);
+            }
+            total += 1 + 4 + 4 + compressed[y].length + summaries[y].serializedSize();
+            count++;
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(total);
+        out.putInt(MAGIC).put(VERSION).put((byte) count);
+        for (int y = 0; y < column.length; y++) {
+            if (compressed[y] == null) continue;
+            out.put((byte) y).putInt(rawSizes[y]).putInt(compressed[y].length).put(compressed[y]);
+            summaries[y].writeTo(out);
+        }
+        return out.flip();
+    }
+
+    /**
+     * Comme {@link #decodeColumn(int, int, ByteBuffer, ChunkGenerator)}, sans générateur de secours.
+     */
+    public static Chunk[] decodeColumn(int chunkX, int chunkZ, ByteBuffer data) throws IOException {
+        return decodeColumn(chunkX, chunkZ, data, null);
+    }
+
+    /**
+     * Décode une colonne en {@link WorldManager#HEIGHT_IN_CHUNKS} chunks. Les octets compressés
+     * sont copiés hors de {@code data}, qui peut donc être une tranche de fichier projeté.
+     * Aucune section n'est décompressée ici. {@code fallback} régénère une section qui s'avère
+     * illisible à son premier décodage ; null pour lever une exception à la place.
+     */
+    public static Chunk[] decodeColumn(int chunkX, int chunkZ, ByteBuffer data, ChunkGenerator fallback) throws IOException {
+        ByteBuffer in = data.duplicate();
+        if (in.remaining() < 4 + 1 + 1) throw corrupt(chunkX, chunkZ, "en-tête tronqué");
+        if (in.getInt() != MAGIC) throw corrupt(chunkX, chunkZ, "en-tête invalide");
+        byte version = in.get();
+        if (version != VERSION && version != VERSION_WITHOUT_SUMMARY) {
+            throw corrupt(chunkX, chunkZ, "version inconnue " + version);
+        }
+
+        Chunk[] column = new Chunk[WorldManager.HEIGHT_IN_CHUNKS];
+        int count = in.get() & 0xFF;
+        for (int i = 0; i < count; i++) {
+            // Longueurs vérifiées avant toute allocation : un fichier abîmé donne une IOException
+            if (in.remaining() < 1 + 4 + 4) throw corrupt(chunkX, chunkZ, "section " + i + " tronquée");
+            int y = in.get();
+            int rawSize = in.getInt();
+            int compressedSize = in.getInt();
+            if (rawSize <= 0 || rawSize > MAX_RAW_SIZE) {
+                throw corrupt(chunkX, chunkZ, "taille décompressée invalide " + rawSize);
+            }
+            if (compressedSize <= 0 || compressedSize > in.remaining()) {
+                throw corrupt(chunkX, chunkZ, "taille compressée invalide " + compressedSize);
+            }
+            byte[] compressed = new byte[compressedSize];
+            in.get(compressed);
+            SectionSummary summary = null;
+            if (version != VERSION_WITHOUT_SUMMARY) {
+                try {
+                    summary = SectionSummary.readFrom(in);
+                } catch (IOException e) {
+                    throw corrupt(chunkX, chunkZ, "section " + i + " : " + e.getMessage());
+                }
+            }
+
+            if (y < 0 || y >= column.length) continue; // hors de la hauteur actuelle du monde
+            ChunkCoord coord = new ChunkCoord(chunkX, y, chunkZ);
+            column[y] = new Chunk(coord, new CompressedSection(coord, compressed, rawSize, summary, fallback));
+        }
+
+        for (int y = 0; y < column.length; y++) {
+            if (column[y] == null) column[y] = new Chunk(new ChunkCoord(chunkX, y, chunkZ));
+        }
+        return column;
+    }
+
+    private static IOException corrupt(int chunkX, int chunkZ, String reason) {
+        return new IOException("Colonne " + chunkX + "," + chunkZ + " : " + reason);
+    }
+
+    private static byte[] deflate(byte[] raw, int length) {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput(raw, 0, length);
+        deflater.finish();
+
+        byte[] buffer = new byte[Math.max(64, length / 2)];
+        int size = 0;
+        while (!deflater.finished()) {
+            if (size == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            size += deflater.deflate(buffer, size, buffer.length - size);
+        }
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * Contenu d'une section tel qu'il a été lu, décompressé au premier accès à ses blocs. Une
+     * section régénérée ici garde les cartes de hauteur et les sources de lumière relevées
+     * d'après son résumé jusqu'à sa prochaine modification.
+     */
+    private static final class CompressedSection implements Chunk.Loader {
+        final ChunkCoord coord;
+        final byte[] compressed;
+        final int rawSize;
+        final SectionSummary summary;
+        final ChunkGenerator fallback;
+
+        CompressedSection(ChunkCoord coord, byte[] compressed, int rawSize, SectionSummary summary, ChunkGenerator fallback) {
+            this.coord = coord;
+            this.compressed = compressed;
+            this.rawSize = rawSize;
+            this.summary = summary;
+            this.fallback = fallback;
+        }
+
+        @Override
+        public void load(BlockStorage into) {
+            try {
+                // readFrom laisse la section intacte (vide) s'il échoue
+                into.readFrom(ByteBuffer.wrap(inflate(compressed, rawSize)));
+            } catch (IOException e) {
+                if (fallback == null) {
+                    throw new IllegalStateException("Section " + coord + " corrompue : " + e.getMessage(), e);
+                }
+                System.err.println("Section " + coord + " illisible, régénération : " + e.getMessage());
+                fallback.generate(coord.x(), coord.y(), coord.z(), into);
+            }
+        }
+
+        @Override
+        public SectionSummary summary() {
+            return summary;
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int rawSize) throws IOException {
+        Inflater inflater = INFLATER.get();
+        inflater.reset();
+        inflater.setInput(compressed);
+
+        byte[] raw = new byte[rawSize];
+        try {
+            int size = 0;
+            while (size < rawSize && !inflater.finished()) {
+                int n = inflater.inflate(raw, size, rawSize - size);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                size += n;
+            }
+            if (size != rawSize) throw new DataFormatException("taille " + size + " au lieu de " + rawSize);
+        } catch (DataFormatException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return raw;
+    }
+}
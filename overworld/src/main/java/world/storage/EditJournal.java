@@ -0,0 +1,324 @@
+package world.storage;
+
+import world.ChunkCoord;
+import world.WorldManager;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Journal d'écriture anticipée des modifications de blocs.
+ * <p>
+ * Chaque modification est ajoutée en fin de {@code journal.log} sous forme d'un
+ * enregistrement de taille fixe (voir {@link #RECORD_SIZE}) protégé par un CRC32.
+ * Un thread d'arrière-plan force le journal sur disque chaque seconde et, à intervalle
+ * régulier, le renomme en {@code journal.old} puis en reporte le contenu dans les
+ * fichiers de région. Une sauvegarde coûte donc O(modifications) et non O(chunks chargés).
+ * <p>
+ * Tant qu'une modification n'est pas reportée dans les régions, elle reste aussi en mémoire
+ * et est réappliquée sur la colonne à son rechargement ({@link #loadColumn}). Les
+ * enregistrements portent le nouvel identifiant : les rejouer plusieurs fois, dans l'ordre,
+ * donne toujours le même résultat.
+ * <p>
+ * À l'ouverture, un {@code journal.old} laissé par un arrêt brutal est reporté, puis
+ * {@code journal.log} est relu jusqu'au premier enregistrement invalide (écriture coupée).
+ */
+public class EditJournal implements AutoCloseable {
+    public static final String FILE_NAME = "journal.log";
+    public static final String OLD_FILE_NAME = "journal.old";
+
+    // long clé du chunk, short index local, short ancien id, short nouvel id, long tick, int CRC32
+    public static final int RECORD_SIZE = 8 + 2 + 2 + 2 + 8 + 4;
+    private static final int CRC_OFFSET = RECORD_SIZE - 4;
+
+    private static final long SYNC_PERIOD_MS = 1000;
+    private static final long COMPACT_PERIOD_MS = 30_000;
+
+    private final WorldManager world;
+    private final RegionStorage storage;
+    private final Path file;
+    private final Path oldFile;
+
+    // Enregistrements en attente d'écriture, protégés par le verrou de l'instance
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 1024);
+    private final CRC32 crc = new CRC32();
+    private FileChannel channel;
+
+    // Modifications pas encore reportées dans les régions, par colonne
+    private volatile ConcurrentHashMap<Long, ColumnEdits> pending = new ConcurrentHashMap<>();
+    // Celles du journal en cours de report, null hors compaction
+    private volatile ConcurrentHashMap<Long, ColumnEdits> folding;
+
+    private final ScheduledExecutorService executor;
+    // Une seule compaction à la fois : le thread du journal et BackupService peuvent en lancer une
+    private final Object compactLock = new Object();
+
+    public EditJournal(Path worldDirectory, WorldManager world, RegionStorage storage) throws IOException {
+        this.world = world;
+        this.storage = storage;
+        this.file = worldDirectory.resolve(FILE_NAME);
+        this.oldFile = worldDirectory.resolve(OLD_FILE_NAME);
+
+        // Compaction interrompue : on la termine avant tout
+        if (Files.exists(oldFile)) {
+            ConcurrentHashMap<Long, ColumnEdits> interrupted = new ConcurrentHashMap<>();
+            readEdits(oldFile, interrupted);
+            fold(interrupted);
+            Files.delete(oldFile);
+        }
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long valid = readEdits(file, pending);
+        // Coupe un éventuel enregistrement à moitié écrit
+        channel.truncate(valid);
+        channel.position(valid);
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EditJournal-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::syncQuietly, SYNC_PERIOD_MS, SYNC_PERIOD_MS, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(this::compactQuietly, COMPACT_PERIOD_MS, COMPACT_PERIOD_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ajoute une modification au journal. Aucune entrée/sortie ici sauf si le tampon est plein.
+     */
+    public synchronized void append(int chunkX, int chunkY, int chunkZ, int index, int oldId, int newId, long tick) {
+        if (buffer.remaining() < RECORD_SIZE) {
+            writeBuffer();
+        }
+
+        int start = buffer.position();
+        buffer.putLong(ChunkCoord.pack(chunkX, chunkY, chunkZ))
+                .putShort((short) index)
+                .putShort((short) oldId)
+                .putShort((short) newId)
+                .putLong(tick);
+        crc.reset();
+        crc.update(buffer.slice(start, CRC_OFFSET));
+        buffer.putInt((int) crc.getValue());
+
+        pending.computeIfAbsent(columnKey(chunkX, chunkZ), k -> new ColumnEdits()).add(chunkY, index, newId);
+    }
+
+    /**
+     * Lit une colonne depuis les régions (ou le générateur) et lui réapplique les modifications
+     * qui n'y sont pas encore reportées.
+     */
+    public Chunk[] loadColumn(int chunkX, int chunkZ) {
+        // Tables lues avant la région, pending d'abord (compact() publie folding avant de remplacer
+        // pending) : une compaction qui se termine entre temps a déjà écrit ce qu'on ne verrait plus
+        ConcurrentHashMap<Long, ColumnEdits> pending = this.pending;
+        ConcurrentHashMap<Long, ColumnEdits> folding = this.folding;
+        long key = columnKey(chunkX, chunkZ);
+
+        Chunk[] column = world.readColumn(chunkX, chunkZ);
+        if (folding != null) {
+            ColumnEdits edits = folding.get(key);
+            if (edits != null) edits.applyTo(column);
+        }
+        ColumnEdits edits = pending.get(key);
+        if (edits != null) edits.applyTo(column);
+        return column;
+    }
+
+    /**
+     * Écrit les enregistrements en attente et les force sur disque.
+     */
+    public void sync() throws IOException {
+        FileChannel channel;
+        synchronized (this) {
+            writeBuffer();
+            channel = this.channel;
+        }
+        // Hors du verrou : append ne doit jamais attendre le disque
+        channel.force(false);
+    }
+
+    /**
+     * Reporte le journal dans les fichiers de région. Le journal courant est d'abord
+     * renommé : les nouvelles modifications continuent d'arriver dans un journal vide.
+     * Un report qui échoue est repris à l'appel suivant, avant tout nouveau renommage.
+     */
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            compactLocked();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        // Report précédent en échec : journal.old et folding sont gardés tels quels et terminés
+        // d'abord. Sans quoi le renommage écraserait journal.old et ses modifications seraient perdues
+        ConcurrentHashMap<Long, ColumnEdits> unfinished = folding;
+        if (unfinished != null) {
+            fold(unfinished);
+            Files.deleteIfExists(oldFile);
+            folding = null;
+        }
+
+        ConcurrentHashMap<Long, ColumnEdits> toFold;
+        synchronized (this) {
+            writeBuffer();
+            if (channel.size() == 0) return;
+            if (Files.exists(oldFile)) {
+                throw new IOException(OLD_FILE_NAME + " existe encore, compaction reportée");
+            }
+
+            channel.force(false);
+            channel.close();
+            Files.move(file, oldFile, StandardCopyOption.ATOMIC_MOVE);
+            channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+            toFold = pending;
+            folding = toFold;
+            pending = new ConcurrentHashMap<>();
+        }
+
+        fold(toFold);
+        Files.delete(oldFile);
+        folding = null;
+    }
+
+    /**
+     * Relit chaque colonne depuis les régions (ou le générateur), applique les modifications et la
+     * réécrit. Au retour, tout est sur le disque : les régions écrivent en copie sur écriture et
+     * leur flush force la table d'allocation, donc le journal reporté peut être supprimé. Un arrêt
+     * avant la fin laisse chaque colonne dans son ancienne version, que le journal rejoue.
+     */
+    private void fold(ConcurrentHashMap<Long, ColumnEdits> edits) throws IOException {
+        for (var entry : edits.entrySet()) {
+            int chunkX = ChunkCoord.unpackX(entry.getKey());
+            int chunkZ = ChunkCoord.unpackZ(entry.getKey());
+
+            Chunk[] column = world.readColumn(chunkX, chunkZ);
+            entry.getValue().applyTo(column);
+            storage.write(chunkX, chunkZ, ChunkCodec.encodeColumn(column));
+        }
+        storage.flush();
+    }
+
+    // Lit les enregistrements valides d'un journal et renvoie la longueur de la partie saine
+    private static long readEdits(Path path, ConcurrentHashMap<Long, ColumnEdits> into) throws IOException {
+        byte[] bytes = Files.readAllBytes(path);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+
+        int count = 0;
+        while (in.remaining() >= RECORD_SIZE) {
+            int start = in.position();
+            crc.reset();
+            crc.update(bytes, start, CRC_OFFSET);
+            if (in.getInt(start + CRC_OFFSET) != (int) crc.getValue()) {
+                System.err.println("Journal " + path.getFileName() + " tronqué après " + count + " modifications");
+                break;
+            }
+
+            long chunkKey = in.getLong();
+            int index = in.getShort() & 0xFFFF;
+            in.getShort(); // ancien id, utile seulement pour annuler
+            int newId = in.getShort();
+            in.position(start + RECORD_SIZE);
+
+            int chunkX = ChunkCoord.unpackX(chunkKey), chunkZ = ChunkCoord.unpackZ(chunkKey);
+            into.computeIfAbsent(columnKey(chunkX, chunkZ), k -> new ColumnEdits())
+                    .add(ChunkCoord.unpackY(chunkKey), index, newId);
+            count++;
+        }
+        return (long) count * RECORD_SIZE;
+    }
+
+    private void writeBuffer() {
+        if (buffer.position() == 0) return;
+
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Écriture du journal impossible", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur de synchronisation du journal: " + e.getMessage());
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Erreur de compaction du journal: " + e.getMessage());
+        }
+    }
+
+    public int getPendingColumnCount() {
+        return pending.size();
+    }
+
+    /**
+     * Arrête le thread d'arrière-plan et reporte tout le journal dans les régions.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compact();
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    private static long columnKey(int chunkX, int chunkZ) {
+        return ChunkCoord.pack(chunkX, 0, chunkZ);
+    }
+
+    /**
+     * Modifications d'une colonne dans l'ordre d'arrivée : (y << 32) | (index << 16) | nouvel id.
+     */
+    private static final class ColumnEdits {
+        private long[] edits = new long[16];
+        private int size;
+
+        synchronized void add(int chunkY, int index, int newId) {
+            if (size == edits.length) edits = Arrays.copyOf(edits, size * 2);
+            edits[size++] = ((long) chunkY << 32) | ((long) index << 16) | (newId & 0xFFFF);
+        }
+
+        synchronized void applyTo(Chunk[] column) {
+            for (int i = 0; i < size; i++) {
+                long edit = edits[i];
+                int y = (int) (edit >> 32);
+                if (y < 0 || y >= column.length) continue;
+
+                BlockStorage blocks = column[y].getBlocks();
+                blocks.setAt((int) (edit >>> 16) & 0xFFFF, (int) edit & 0xFFFF);
+            }
+        }
+    }
+}
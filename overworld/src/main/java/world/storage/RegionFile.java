@@ -0,0 +1,203 @@
+package world.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * Fichier de région : regroupe 32x32 colonnes de chunks dans un seul fichier projeté en mémoire.
+ * <p>
+ * Le fichier est découpé en secteurs de {@link #SECTOR_SIZE} octets. Les deux premiers
+ * forment la table d'allocation : pour chaque colonne, un int (premier secteur) et un int
+ * (longueur en octets), 0 si la colonne n'est pas enregistrée. Lire une colonne revient à
+ * lire son entrée et à renvoyer une tranche de la projection, sans copie.
+ * <p>
+ * Les écritures sont en copie sur écriture : une colonne est toujours écrite dans des secteurs
+ * libres, forcés sur le disque avant que son entrée ne pointe dessus. Ses anciens secteurs ne
+ * redeviennent libres qu'au {@link #flush} suivant, une fois la nouvelle entrée elle-même sur le
+ * disque. Un arrêt brutal laisse donc chaque entrée sur l'ancienne ou la nouvelle version
+ * complète de sa colonne, jamais sur des données à moitié écrites.
+ */
+public class RegionFile implements AutoCloseable {
+    public static final int REGION_SIZE = 32;
+    public static final int SECTOR_SIZE = 4096;
+
+    private static final int ENTRY_BYTES = 8;
+    private static final int HEADER_BYTES = REGION_SIZE * REGION_SIZE * ENTRY_BYTES;
+    private static final int HEADER_SECTORS = HEADER_BYTES / SECTOR_SIZE;
+    // La projection grandit par paliers pour limiter les re-projections
+    private static final long MIN_GROWTH = 256L * SECTOR_SIZE;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final BitSet usedSectors = new BitSet();
+    // Secteurs abandonnés depuis le dernier flush : l'entrée sur le disque peut encore y pointer
+    private final BitSet releasedSectors = new BitSet();
+    private MappedByteBuffer mapped;
+
+    public RegionFile(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        long fileSize = channel.size();
+        map(roundToSectors(Math.max(fileSize, HEADER_BYTES)));
+
+        usedSectors.set(0, HEADER_SECTORS);
+        for (int i = 0; i < REGION_SIZE * REGION_SIZE; i++) {
+            int offset = mapped.getInt(i * ENTRY_BYTES);
+            int length = mapped.getInt(i * ENTRY_BYTES + 4);
+            if (offset == 0 && length == 0) continue;
+
+            if (!isValidEntry(offset, length, fileSize)) {
+                // Entrée corrompue : la colonne est traitée comme absente et sera régénérée
+                System.err.println("Entrée invalide dans " + path + " pour la colonne "
+                        + (i % REGION_SIZE) + "," + (i / REGION_SIZE) + " (secteur " + offset + ", " + length + " octets), ignorée");
+                mapped.putInt(i * ENTRY_BYTES, 0);
+                mapped.putInt(i * ENTRY_BYTES + 4, 0);
+                continue;
+            }
+            usedSectors.set(offset, offset + sectorsFor(length));
+        }
+    }
+
+    // Les données doivent suivre l'en-tête, tenir dans le fichier et ne chevaucher aucune autre colonne
+    private boolean isValidEntry(int offset, int length, long fileSize) {
+        if (length <= 0 || offset < HEADER_SECTORS) return false;
+        if ((long) offset * SECTOR_SIZE + length > fileSize) return false;
+        int next = usedSectors.nextSetBit(offset);
+        return next < 0 || next >= offset + sectorsFor(length);
+    }
+
+    /**
+     * Données d'une colonne (coordonnées locales 0-31), en lecture seule et sans copie, ou null.
+     * La tranche reste valable jusqu'à la prochaine écriture de cette même colonne : si d'autres
+     * threads écrivent, utiliser {@link #readCopy}.
+     */
+    public synchronized ByteBuffer read(int localX, int localZ) {
+        int entry = entryOffset(localX, localZ);
+        int offset = mapped.getInt(entry);
+        int length = mapped.getInt(entry + 4);
+        if (length == 0) return null;
+
+        return mapped.slice(offset * SECTOR_SIZE, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Copie des données d'une colonne, ou null. Contrairement à {@link #read}, la copie reste
+     * valable même si la colonne est réécrite ensuite.
+     */
+    public synchronized byte[] readCopy(int localX, int localZ) {
+        ByteBuffer data = read(localX, localZ);
+        if (data == null) return null;
+
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+
+    public synchronized boolean contains(int localX, int localZ) {
+        return mapped.getInt(entryOffset(localX, localZ) + 4) != 0;
+    }
+
+    /**
+     * Écrit les octets restants de {@code data} pour une colonne, dans la première plage libre
+     * assez grande. Les données sont sur le disque avant que l'entrée ne soit mise à jour.
+     */
+    public synchronized void write(int localX, int localZ, ByteBuffer data) throws IOException {
+        int length = data.remaining();
+        if (length == 0) {
+            delete(localX, localZ);
+            return;
+        }
+
+        int needed = sectorsFor(length);
+        int offset = findFreeRun(needed);
+        ensureMapped((long) (offset + needed) * SECTOR_SIZE);
+        usedSectors.set(offset, offset + needed);
+        mapped.put(offset * SECTOR_SIZE, data, data.position(), length);
+        mapped.force(offset * SECTOR_SIZE, length);
+
+        int entry = entryOffset(localX, localZ);
+        release(mapped.getInt(entry), mapped.getInt(entry + 4));
+        mapped.putInt(entry, offset);
+        mapped.putInt(entry + 4, length);
+    }
+
+    public synchronized void delete(int localX, int localZ) {
+        int entry = entryOffset(localX, localZ);
+        int length = mapped.getInt(entry + 4);
+        if (length == 0) return;
+
+        release(mapped.getInt(entry), length);
+        mapped.putInt(entry, 0);
+        mapped.putInt(entry + 4, 0);
+    }
+
+    // Les secteurs ne seront réutilisés qu'après le prochain flush
+    private void release(int offset, int length) {
+        if (length > 0) releasedSectors.set(offset, offset + sectorsFor(length));
+    }
+
+    /**
+     * Force l'écriture des pages modifiées, dont la table d'allocation, sur le disque. Les secteurs
+     * abandonnés depuis le dernier appel redeviennent libres.
+     */
+    public synchronized void flush() {
+        mapped.force();
+        usedSectors.andNot(releasedSectors);
+        releasedSectors.clear();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        mapped.force();
+        channel.close();
+    }
+
+    private int findFreeRun(int count) {
+        int start = usedSectors.nextClearBit(HEADER_SECTORS);
+        while (true) {
+            int end = usedSectors.nextSetBit(start);
+            if (end < 0 || end - start >= count) return start;
+            start = usedSectors.nextClearBit(end);
+        }
+    }
+
+    private void ensureMapped(long bytes) throws IOException {
+        if (bytes <= mapped.capacity()) return;
+
+        long grown = Math.max(bytes, mapped.capacity() + Math.max(MIN_GROWTH, mapped.capacity() / 2));
+        mapped.force();
+        map(roundToSectors(grown));
+    }
+
+    private void map(long bytes) throws IOException {
+        if (bytes > Integer.MAX_VALUE) {
+            throw new IOException("Fichier de région trop grand : " + path);
+        }
+        // En lecture/écriture, la projection agrandit le fichier si nécessaire
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        mapped.order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static int entryOffset(int localX, int localZ) {
+        return ((localZ & (REGION_SIZE - 1)) * REGION_SIZE + (localX & (REGION_SIZE - 1))) * ENTRY_BYTES;
+    }
+
+    private static int sectorsFor(int length) {
+        return (length + SECTOR_SIZE - 1) / SECTOR_SIZE;
+    }
+
+    private static long roundToSectors(long bytes) {
+        return (bytes + SECTOR_SIZE - 1) / SECTOR_SIZE * SECTOR_SIZE;
+    }
+}
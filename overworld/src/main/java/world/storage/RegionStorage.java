@@ -0,0 +1,130 @@
+package world.storage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Accès aux fichiers de région d'un monde, ouverts à la demande et gardés ouverts.
+ * Les colonnes sont adressées par leurs coordonnées de chunk (x, z).
+ */
+public class RegionStorage implements AutoCloseable {
+    private final Path regionDirectory;
+    private final ConcurrentHashMap<Long, RegionFile> regions = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    public interface ColumnVisitor {
+        void visit(int chunkX, int chunkZ, byte[] data) throws IOException;
+    }
+
+    public RegionStorage(Path worldDirectory) throws IOException {
+        this.regionDirectory = worldDirectory.resolve("region");
+        Files.createDirectories(regionDirectory);
+    }
+
+    /**
+     * Données d'une colonne, ou null. Copiées sous le verrou de la région : la compaction du journal
+     * et la sauvegarde automatique réécrivent les secteurs en place, une tranche de la projection
+     * pourrait être lue à moitié ancienne, à moitié nouvelle.
+     */
+    public ByteBuffer read(int chunkX, int chunkZ) throws IOException {
+        RegionFile region = getRegion(chunkX, chunkZ, false);
+        if (region == null) return null;
+
+        byte[] data = region.readCopy(chunkX, chunkZ);
+        return data == null ? null : ByteBuffer.wrap(data);
+    }
+
+    public void write(int chunkX, int chunkZ, ByteBuffer data) throws IOException {
+        getRegion(chunkX, chunkZ, true).write(chunkX, chunkZ, data);
+    }
+
+    public boolean contains(int chunkX, int chunkZ) throws IOException {
+        RegionFile region = getRegion(chunkX, chunkZ, false);
+        return region != null && region.contains(chunkX, chunkZ);
+    }
+
+    /**
+     * Parcourt toutes les colonnes sauvegardées, région par région. Chaque colonne est copiée
+     * sous le verrou de sa région : une écriture concurrente ne peut pas la couper en deux.
+     */
+    public void forEachColumn(ColumnVisitor visitor) throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(regionDirectory)) {
+            files = list.sorted().toList();
+        }
+
+        for (Path file : files) {
+            String[] parts = file.getFileName().toString().split("\\.");
+            if (parts.length != 4 || !parts[0].equals("r") || !parts[3].equals("region")) continue;
+
+            int rx, rz;
+            try {
+                rx = Integer.parseInt(parts[1]);
+                rz = Integer.parseInt(parts[2]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            RegionFile region = getRegion(rx * RegionFile.REGION_SIZE, rz * RegionFile.REGION_SIZE, false);
+            if (region == null) continue;
+            for (int lz = 0; lz < RegionFile.REGION_SIZE; lz++) {
+                for (int lx = 0; lx < RegionFile.REGION_SIZE; lx++) {
+                    byte[] data = region.readCopy(lx, lz);
+                    if (data != null) {
+                        visitor.visit(rx * RegionFile.REGION_SIZE + lx, rz * RegionFile.REGION_SIZE + lz, data);
+                    }
+                }
+            }
+        }
+    }
+
+    public void flush() {
+        regions.values().forEach(RegionFile::flush);
+    }
+
+    public Path getRegionDirectory() {
+        return regionDirectory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (RegionFile region : regions.values()) {
+            region.close();
+        }
+        regions.clear();
+    }
+
+    private RegionFile getRegion(int chunkX, int chunkZ, boolean create) throws IOException {
+        int rx = Math.floorDiv(chunkX, RegionFile.REGION_SIZE);
+        int rz = Math.floorDiv(chunkZ, RegionFile.REGION_SIZE);
+        long key = ((long) rx << 32) | (rz & 0xFFFFFFFFL);
+
+        RegionFile region = regions.get(key);
+        if (region != null) return region;
+
+        Path file = regionDirectory.resolve(fileName(rx, rz));
+        if (!create && !Files.exists(file)) return null;
+
+        try {
+            return regions.computeIfAbsent(key, k -> {
+                try {
+                    return new RegionFile(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public static String fileName(int regionX, int regionZ) {
+        return "r." + regionX + "." + regionZ + ".region";
+    }
+}
@@ -0,0 +1,187 @@
+package world.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Sauvegardes d'un monde dédupliquées par contenu.
+ * <p>
+ * Chaque colonne sérialisée (déjà compressée par {@link ChunkCodec}) est rangée une seule fois
+ * dans {@code objects/<2 premiers caractères>/<SHA-256>}. Une sauvegarde n'est qu'un manifeste
+ * texte dans {@code manifests/} qui associe chaque colonne à son empreinte : une sauvegarde
+ * incrémentale n'écrit que les colonnes qui ont changé depuis les précédentes.
+ * <p>
+ * Format d'un manifeste : une ligne {@code chunkX chunkZ empreinte} par colonne.
+ */
+public class WorldBackup {
+    private static final String MANIFEST_SUFFIX = ".manifest";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final Path objectsDirectory;
+    private final Path manifestsDirectory;
+
+    public record Result(String name, int columns, int newObjects, long bytesWritten, long nanos) {}
+
+    @FunctionalInterface
+    public interface ColumnFilter {
+        boolean accept(int chunkX, int chunkZ);
+    }
+
+    public WorldBackup(Path backupDirectory) throws IOException {
+        this.objectsDirectory = backupDirectory.resolve("objects");
+        this.manifestsDirectory = backupDirectory.resolve("manifests");
+        Files.createDirectories(objectsDirectory);
+        Files.createDirectories(manifestsDirectory);
+    }
+
+    /**
+     * Sauvegarde toutes les colonnes du stockage. Les écritures en cours doivent être vidées
+     * avant (journal reporté, sauvegarde automatique terminée) pour un état cohérent.
+     */
+    public Result backup(RegionStorage storage) throws IOException {
+        long start = System.nanoTime();
+        String name = LocalDateTime.now().format(NAME_FORMAT);
+        Set<String> known = listObjects();
+        MessageDigest digest = sha256();
+
+        int[] counts = new int[2];
+        long[] bytes = {0};
+        Path manifest = manifestsDirectory.resolve(name + MANIFEST_SUFFIX);
+        Path tmp = manifestsDirectory.resolve(name + MANIFEST_SUFFIX + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+            storage.forEachColumn((chunkX, chunkZ, data) -> {
+                String hash = HEX.formatHex(digest.digest(data));
+                if (known.add(hash)) {
+                    writeAtomically(objectPath(hash), data);
+                    counts[1]++;
+                    bytes[0] += data.length;
+                }
+                writer.write(chunkX + " " + chunkZ + " " + hash);
+                writer.newLine();
+                counts[0]++;
+            });
+        }
+        // Le manifeste n'apparaît qu'une fois tous ses objets écrits
+        Files.move(tmp, manifest, StandardCopyOption.ATOMIC_MOVE);
+
+        return new Result(name, counts[0], counts[1], bytes[0], System.nanoTime() - start);
+    }
+
+    /**
+     * Noms des sauvegardes, de la plus ancienne à la plus récente.
+     */
+    public List<String> listBackups() throws IOException {
+        try (Stream<Path> list = Files.list(manifestsDirectory)) {
+            return list.map(path -> path.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(MANIFEST_SUFFIX))
+                    .map(fileName -> fileName.substring(0, fileName.length() - MANIFEST_SUFFIX.length()))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Restaure dans {@code into} les colonnes acceptées par le filtre. Le manifeste est lu ligne
+     * par ligne et seuls les objets des colonnes retenues sont ouverts. Renvoie le nombre de
+     * colonnes restaurées.
+     */
+    public int restore(String name, RegionStorage into, ColumnFilter filter) throws IOException {
+        Path manifest = manifestsDirectory.resolve(name + MANIFEST_SUFFIX);
+        MessageDigest digest = sha256();
+        int restored = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(manifest)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                if (parts.length != 3) continue;
+
+                int chunkX = Integer.parseInt(parts[0]);
+                int chunkZ = Integer.parseInt(parts[1]);
+                if (!filter.accept(chunkX, chunkZ)) continue;
+
+                byte[] data = Files.readAllBytes(objectPath(parts[2]));
+                if (!HEX.formatHex(digest.digest(data)).equals(parts[2])) {
+                    System.err.println("Objet corrompu pour la colonne " + chunkX + "," + chunkZ + " : " + parts[2]);
+                    continue;
+                }
+                into.write(chunkX, chunkZ, ByteBuffer.wrap(data));
+                restored++;
+            }
+        }
+        into.flush();
+        return restored;
+    }
+
+    /**
+     * Ne garde que les {@code keep} sauvegardes les plus récentes, puis supprime les objets
+     * qu'aucun manifeste restant ne cite. Renvoie le nombre de sauvegardes supprimées.
+     */
+    public int prune(int keep) throws IOException {
+        List<String> backups = listBackups();
+        int removed = Math.max(0, backups.size() - keep);
+        for (String name : backups.subList(0, removed)) {
+            Files.deleteIfExists(manifestsDirectory.resolve(name + MANIFEST_SUFFIX));
+        }
+        if (removed == 0) return 0;
+
+        Set<String> referenced = new HashSet<>();
+        for (String name : backups.subList(removed, backups.size())) {
+            try (Stream<String> lines = Files.lines(manifestsDirectory.resolve(name + MANIFEST_SUFFIX))) {
+                lines.map(line -> line.split(" "))
+                        .filter(parts -> parts.length == 3)
+                        .forEach(parts -> referenced.add(parts[2]));
+            }
+        }
+        for (String hash : listObjects()) {
+            if (!referenced.contains(hash)) Files.deleteIfExists(objectPath(hash));
+        }
+        return removed;
+    }
+
+    private Path objectPath(String hash) {
+        return objectsDirectory.resolve(hash.substring(0, 2)).resolve(hash);
+    }
+
+    private Set<String> listObjects() throws IOException {
+        Set<String> hashes = new HashSet<>();
+        try (Stream<Path> files = Files.walk(objectsDirectory, 2)) {
+            files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .filter(fileName -> !fileName.endsWith(".tmp"))
+                    .forEach(hashes::add);
+        }
+        return hashes;
+    }
+
+    private static void writeAtomically(Path path, byte[] data) throws IOException {
+        Files.createDirectories(path.getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, data);
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
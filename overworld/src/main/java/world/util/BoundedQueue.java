@@ -0,0 +1,90 @@
+package world.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * File bornée sans verrou, plusieurs producteurs et plusieurs consommateurs
+ * (anneau à numéros de séquence de D. Vyukov). La capacité est arrondie à
+ * la puissance de deux supérieure.
+ */
+public class BoundedQueue<E> {
+    private final Object[] items;
+    // Numéro de séquence de chaque case : indique si elle est libre ou prête à être lue
+    private final AtomicLongArray sequences;
+    private final int mask;
+
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public BoundedQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        items = new Object[size];
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Ajoute un élément ; renvoie faux si la file est pleine.
+     */
+    public boolean offer(E item) {
+        long pos = tail.get();
+
+        while (true) {
+            int i = (int) pos & mask;
+            long diff = sequences.get(i) - pos;
+
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    items[i] = item;
+                    sequences.set(i, pos + 1); // publie l'élément
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Retire le plus ancien élément, ou renvoie null si la file est vide.
+     */
+    @SuppressWarnings("unchecked")
+    public E poll() {
+        long pos = head.get();
+
+        while (true) {
+            int i = (int) pos & mask;
+            long diff = sequences.get(i) - (pos + 1);
+
+            if (diff == 0) {
+                if (head.compareAndSet(pos, pos + 1)) {
+                    E item = (E) items[i];
+                    items[i] = null;
+                    sequences.set(i, pos + mask + 1); // libère la case pour le tour suivant
+                    return item;
+                }
+                pos = head.get();
+            } else if (diff < 0) {
+                return null;
+            } else {
+                pos = head.get();
+            }
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+}
@@ -0,0 +1,57 @@
+package world.util;
+
+import java.util.Arrays;
+
+/**
+ * File d'int sans boxing pour les parcours en largeur : les éléments sont poussés à la suite
+ * dans un tableau qui grandit, et la file revient au début dès qu'elle est vide. Un élément de
+ * plusieurs valeurs (x, y, z...) se pousse et se lit champ par champ. Non synchronisée.
+ */
+public class IntQueue {
+    private int[] values;
+    private int head;
+    private int tail;
+
+    public IntQueue() {
+        this(1024);
+    }
+
+    public IntQueue(int initialCapacity) {
+        values = new int[Math.max(4, initialCapacity)];
+    }
+
+    public void push(int value) {
+        if (tail == values.length) {
+            if (head > 0) {
+                // Récupère la place déjà lue avant d'agrandir
+                System.arraycopy(values, head, values, 0, tail - head);
+                tail -= head;
+                head = 0;
+            }
+            if (tail == values.length) values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[tail++] = value;
+    }
+
+    public int pop() {
+        int value = values[head++];
+        if (head == tail) {
+            head = 0;
+            tail = 0;
+        }
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return head == tail;
+    }
+
+    public int size() {
+        return tail - head;
+    }
+
+    public void clear() {
+        head = 0;
+        tail = 0;
+    }
+}
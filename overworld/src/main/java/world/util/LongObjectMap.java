@@ -0,0 +1,200 @@
+package world.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Table de hachage à adressage ouvert (sondage linéaire) avec des clés {@code long} primitives.
+ * <p>
+ * Les lectures ({@link #get}, {@link #forEach}) sont sans verrou et peuvent venir de
+ * n'importe quel thread. Les écritures ({@link #put}, {@link #remove}, {@link #clear})
+ * doivent venir d'un seul thread. Une suppression laisse une tombe dans la case pour
+ * ne pas casser les chaînes de sondage des lecteurs ; les tombes sont purgées en
+ * reconstruisant une nouvelle table, publiée d'un coup.
+ */
+public class LongObjectMap<V> {
+    private static final Object TOMBSTONE = new Object();
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile Table table;
+    private int size;
+    private int used; // cases occupées, tombes comprises
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+
+    public LongObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectMap(int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        int i = hash(key) & t.mask;
+
+        while (true) {
+            // La valeur est publiée après la clé : lire la valeur en premier garantit une clé à jour
+            Object value = t.values.get(i);
+            if (value == null) return null;
+            if (t.keys.get(i) == key) {
+                return value == TOMBSTONE ? null : (V) value;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) throw new IllegalArgumentException("Valeur nulle interdite");
+
+        Table t = table;
+        int i = hash(key) & t.mask;
+
+        while (true) {
+            Object current = t.values.get(i);
+            if (current == null) break;
+            if (t.keys.get(i) == key) {
+                t.values.set(i, value);
+                if (current == TOMBSTONE) {
+                    size++;
+                    return null;
+                }
+                return (V) current;
+            }
+            i = (i + 1) & t.mask;
+        }
+
+        // Nouvelle case : on garde la table au plus à moitié pleine
+        if ((used + 1) * 2 > t.mask + 1) {
+            t = rehash(capacityFor(size + 1));
+            i = hash(key) & t.mask;
+            while (t.values.get(i) != null) {
+                i = (i + 1) & t.mask;
+            }
+        }
+
+        t.keys.set(i, key);
+        t.values.set(i, value);
+        size++;
+        used++;
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        Table t = table;
+        int i = hash(key) & t.mask;
+
+        while (true) {
+            Object current = t.values.get(i);
+            if (current == null) return null;
+            if (t.keys.get(i) == key) {
+                if (current == TOMBSTONE) return null;
+                t.values.set(i, TOMBSTONE);
+                size--;
+                return (V) current;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    public void clear() {
+        table = new Table(MIN_CAPACITY);
+        size = 0;
+        used = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Parcourt les entrées de la table telle qu'elle est au moment de l'appel.
+     * Une écriture concurrente peut être vue ou non.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        Table t = table;
+        for (int i = 0; i <= t.mask; i++) {
+            Object value = t.values.get(i);
+            if (value != null && value != TOMBSTONE) {
+                consumer.accept(t.keys.get(i), (V) value);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<? super V> consumer) {
+        Table t = table;
+        for (int i = 0; i <= t.mask; i++) {
+            Object value = t.values.get(i);
+            if (value != null && value != TOMBSTONE) {
+                consumer.accept((V) value);
+            }
+        }
+    }
+
+    private Table rehash(int capacity) {
+        Table old = table;
+        Table fresh = new Table(capacity);
+
+        for (int i = 0; i <= old.mask; i++) {
+            Object value = old.values.get(i);
+            if (value == null || value == TOMBSTONE) continue;
+
+            long key = old.keys.get(i);
+            int j = hash(key) & fresh.mask;
+            while (fresh.values.get(j) != null) {
+                j = (j + 1) & fresh.mask;
+            }
+            fresh.keys.set(j, key);
+            fresh.values.set(j, value);
+        }
+
+        used = size;
+        table = fresh;
+        return fresh;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 4) - 1) << 1;
+        return Math.max(MIN_CAPACITY, capacity);
+    }
+
+    // Finaliseur de MurmurHash3 : les coordonnées voisines ne doivent pas se suivre dans la table
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private static final class Table {
+        final AtomicLongArray keys;
+        final AtomicReferenceArray<Object> values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+    }
+}
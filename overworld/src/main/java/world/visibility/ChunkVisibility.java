@@ -0,0 +1,101 @@
+package world.visibility;
+
+import org.joml.FrustumIntersection;
+import org.joml.Matrix4f;
+import world.ChunkCoord;
+import world.WorldManager;
+import world.chunk.Chunk;
+import world.util.LongObjectMap;
+
+import java.util.Arrays;
+
+/**
+ * Liste des chunks visibles pour une image.
+ * <p>
+ * Les six plans du volume de vue sont extraits de projection × vue (orthographique pour la
+ * caméra isométrique, mais toute matrice convient), puis la boîte englobante de chaque section
+ * chargée est testée contre eux. N'utilise que des matrices : testable sans contexte OpenGL.
+ * Avec un {@link WorldManager}, les sections enterrées sont aussi écartées (voir {@link SectionOcclusion}).
+ * Les tableaux sont réutilisés d'une image à l'autre.
+ */
+public class ChunkVisibility {
+    private final Matrix4f viewProjection = new Matrix4f();
+    private final FrustumIntersection frustum = new FrustumIntersection();
+    private final LongObjectMap.EntryConsumer<Chunk> tester = this::test;
+    private final SectionOcclusion occlusion = new SectionOcclusion();
+    // Monde de la mise à jour en cours, null si l'occlusion est désactivée
+    private WorldManager occlusionWorld;
+
+    private Chunk[] visible = new Chunk[256];
+    private int visibleCount;
+    private int testedCount;
+    private int occludedCount;
+
+    /**
+     * Recalcule la liste des chunks visibles parmi {@code chunks}.
+     */
+    public void update(Matrix4f projection, Matrix4f view, LongObjectMap<Chunk> chunks) {
+        occlusionWorld = null;
+        collect(projection, view, chunks);
+    }
+
+    /**
+     * Comme {@link #update(Matrix4f, Matrix4f, LongObjectMap)} sur les chunks chargés du monde,
+     * en écartant en plus les sections enterrées.
+     */
+    public void update(Matrix4f projection, Matrix4f view, WorldManager world) {
+        occlusion.setView(projection, view);
+        occlusionWorld = world;
+        collect(projection, view, world.getLoadedChunk());
+        occlusionWorld = null;
+    }
+
+    private void collect(Matrix4f projection, Matrix4f view, LongObjectMap<Chunk> chunks) {
+        projection.mul(view, viewProjection);
+        frustum.set(viewProjection, false);
+
+        Arrays.fill(visible, 0, visibleCount, null);
+        visibleCount = 0;
+        testedCount = 0;
+        occludedCount = 0;
+        chunks.forEach(tester);
+    }
+
+    private void test(long key, Chunk chunk) {
+        testedCount++;
+        if (!isVisible(ChunkCoord.unpackX(key), ChunkCoord.unpackY(key), ChunkCoord.unpackZ(key))) return;
+        if (occlusionWorld != null && occlusion.isHidden(occlusionWorld, chunk)) {
+            occludedCount++;
+            return;
+        }
+
+        if (visibleCount == visible.length) visible = Arrays.copyOf(visible, visibleCount * 2);
+        visible[visibleCount++] = chunk;
+    }
+
+    /**
+     * Vrai si la boîte de la section touche le volume de vue de la dernière mise à jour.
+     */
+    public boolean isVisible(int chunkX, int chunkY, int chunkZ) {
+        float minX = chunkX * Chunk.SIZE, minY = chunkY * Chunk.SIZE, minZ = chunkZ * Chunk.SIZE;
+        return frustum.testAab(minX, minY, minZ, minX + Chunk.SIZE, minY + Chunk.SIZE, minZ + Chunk.SIZE);
+    }
+
+    public Chunk getVisible(int index) {
+        return visible[index];
+    }
+
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    // Sections dans le champ mais enterrées, lors de la dernière mise à jour
+    public int getOccludedCount() {
+        return occludedCount;
+    }
+
+    // Nombre de sections testées lors de la dernière mise à jour
+    public int getTestedCount() {
+        return testedCount;
+    }
+}
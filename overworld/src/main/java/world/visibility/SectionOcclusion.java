@@ -0,0 +1,66 @@
+package world.visibility;
+
+import org.joml.Matrix4f;
+import org.joml.Vector3f;
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.block.Face;
+import world.chunk.Chunk;
+import world.chunk.ColumnHeightmap;
+
+/**
+ * Élimination conservatrice des sections enterrées.
+ * <p>
+ * La caméra isométrique regarde toujours dans la même direction : seules les faces d'une
+ * section tournées vers elle peuvent laisser passer un rayon de vue. Si la section voisine
+ * derrière chacune de ces faces est entièrement faite d'un même bloc opaque, tout rayon qui
+ * sortirait de la section est arrêté tout de suite : elle est invisible, quoi qu'elle contienne.
+ * <p>
+ * Les cartes de hauteur servent de pré-filtre : seule une section entièrement sous le plus bas
+ * bloc opaque de surface de sa colonne est testée.
+ */
+public class SectionOcclusion {
+    private final Matrix4f inverseViewProjection = new Matrix4f();
+    private final Vector3f near = new Vector3f();
+    private final Vector3f direction = new Vector3f();
+    // Faces dont la normale pointe vers la caméra, un bit par Face
+    private int facingMask;
+
+    /**
+     * Déduit la direction de vue de projection × vue (rayon du plan proche au plan lointain).
+     */
+    public void setView(Matrix4f projection, Matrix4f view) {
+        projection.mul(view, inverseViewProjection).invert();
+        inverseViewProjection.transformProject(0.0f, 0.0f, -1.0f, near);
+        inverseViewProjection.transformProject(0.0f, 0.0f, 1.0f, direction);
+        direction.sub(near);
+
+        facingMask = 0;
+        for (Face face : Face.VALUES) {
+            if (face.dx * direction.x + face.dy * direction.y + face.dz * direction.z < 0) {
+                facingMask |= 1 << face.ordinal();
+            }
+        }
+    }
+
+    public boolean isHidden(WorldManager world, Chunk chunk) {
+        ChunkCoord p = chunk.getPosition();
+        ColumnHeightmap heightmap = world.getHeightmap(p.x(), p.z());
+        if (heightmap == null || (p.y() + 1) * Chunk.SIZE > heightmap.getLowestOpaque()) return false;
+
+        for (Face face : Face.VALUES) {
+            if ((facingMask & (1 << face.ordinal())) == 0) continue;
+
+            Chunk neighbour = world.getChunk(p.x() + face.dx, p.y() + face.dy, p.z() + face.dz);
+            if (neighbour == null || !isOpaqueSolid(neighbour)) return false;
+        }
+        return true;
+    }
+
+    // Section pleine d'un seul bloc opaque : lisible en O(1) sur la palette, ou sur le résumé si elle est compressée
+    private static boolean isOpaqueSolid(Chunk chunk) {
+        int id = chunk.getUniformId();
+        return id > 0 && BlockRegistry.isOpaque(id);
+    }
+}
@@ -0,0 +1,113 @@
+package world;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import world.block.BlockRegistry;
+import world.block.Face;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bloc et face touchés pour des rayons connus, dans un monde vide où les blocs sont posés un à un.
+ */
+class VoxelRaycasterTest {
+    private static final int ID = BlockRegistry.DEARTH;
+    private static final int TOP = WorldManager.HEIGHT_IN_CHUNKS * 16;
+    private static final float EPSILON = 1e-4f;
+
+    private final WorldManager world = new WorldManager((x, y, z, blocks) -> {});
+    private final VoxelRaycaster raycaster = new VoxelRaycaster();
+    private final VoxelRaycaster.Hit hit = new VoxelRaycaster.Hit();
+
+    @BeforeEach
+    void load() {
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                world.addColumn(world.prepareColumn(x, z));
+            }
+        }
+    }
+
+    // Direction normalisée ici
+    private boolean cast(float ox, float oy, float oz, float dx, float dy, float dz) {
+        float length = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+        return raycaster.raycast(world, ox, oy, oz, dx / length, dy / length, dz / length, 200, hit);
+    }
+
+    private void assertHit(int x, int y, int z, Face face, float distance) {
+        assertEquals(x, hit.getX(), "x");
+        assertEquals(y, hit.getY(), "y");
+        assertEquals(z, hit.getZ(), "z");
+        assertEquals(ID, hit.getBlockId());
+        assertEquals(face, hit.getFace());
+        assertEquals(distance, hit.getDistance(), EPSILON);
+    }
+
+    @Test
+    void axisAlignedRays() {
+        world.setBlock(5, 10, 3, ID);
+        assertTrue(cast(0.5f, 10.5f, 3.5f, 1, 0, 0));
+        assertHit(5, 10, 3, Face.WEST, 4.5f);
+
+        world.setBlock(2, 3, 2, ID);
+        assertTrue(cast(2.5f, 20.5f, 2.5f, 0, -1, 0));
+        assertHit(2, 3, 2, Face.UP, 16.5f);
+
+        world.setBlock(1, 1, -5, ID);
+        assertTrue(cast(1.5f, 1.5f, 0.5f, 0, 0, -1));
+        assertHit(1, 1, -5, Face.SOUTH, 4.5f);
+
+        // Rien sur le chemin
+        assertFalse(cast(0.5f, 30.5f, 0.5f, 0, 0, 1));
+    }
+
+    @Test
+    void diagonalRays() {
+        // Le rayon entre dans la case par l'axe qui y arrive en dernier : x en 3.8
+        world.setBlock(4, 4, 4, ID);
+        assertTrue(cast(0.2f, 0.5f, 0.7f, 1, 1, 1));
+        assertHit(4, 4, 4, Face.WEST, 3.8f * (float) Math.sqrt(3));
+
+        // Dans l'autre sens : z arrive en dernier, par la face +z
+        world.setBlock(5, 5, 5, ID);
+        assertTrue(cast(10.5f, 10.3f, 10.8f, -1, -1, -1));
+        assertHit(5, 5, 5, Face.SOUTH, 4.8f * (float) Math.sqrt(3));
+    }
+
+    @Test
+    void raysCrossChunkBorders() {
+        world.setBlock(17, 5, -3, ID);
+        assertTrue(cast(14.5f, 5.5f, -2.5f, 1, 0, 0));
+        assertHit(17, 5, -3, Face.WEST, 2.5f);
+
+        world.setBlock(-2, 5, 5, ID);
+        assertTrue(cast(1.5f, 5.5f, 5.5f, -1, 0, 0));
+        assertHit(-2, 5, 5, Face.EAST, 2.5f);
+
+        // Vers le bas à travers la frontière de sections y = 16
+        world.setBlock(9, 14, 9, ID);
+        assertTrue(cast(9.5f, 17.5f, 9.5f, 0, -1, 0));
+        assertHit(9, 14, 9, Face.UP, 2.5f);
+    }
+
+    @Test
+    void raysFromAboveTheWorld() {
+        // Bloc tout en haut : le rayon est coupé à TOP puis entre par le dessus
+        world.setBlock(3, TOP - 1, 3, ID);
+        assertTrue(cast(3.5f, 100, 3.5f, 0, -1, 0));
+        assertHit(3, TOP - 1, 3, Face.UP, 100 - TOP);
+
+        world.setBlock(6, 20, 6, ID);
+        assertTrue(cast(6.5f, 100, 6.5f, 0, -1, 0));
+        assertHit(6, 20, 6, Face.UP, 100 - 21);
+
+        // En biais : entre dans le monde en (16.5, TOP), puis dans la case 17 par x
+        world.setBlock(17, TOP - 1, 0, ID);
+        assertTrue(cast(0.5f, TOP + 16, 0.5f, 1, -1, 0));
+        assertHit(17, TOP - 1, 0, Face.WEST, 16.5f * (float) Math.sqrt(2));
+
+        // Horizontal ou vers le haut au-dessus du monde : rien
+        assertFalse(cast(3.5f, 100, 3.5f, 1, 0, 0));
+        assertFalse(cast(3.5f, 100, 3.5f, 0, 1, 0));
+    }
+}
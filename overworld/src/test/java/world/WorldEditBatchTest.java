@@ -0,0 +1,104 @@
+package world;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import world.block.BlockRegistry;
+import world.chunk.Chunk;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ordre des opérations d'un lot, boîtes à cheval sur plusieurs sections, et une seule
+ * notification par chunk touché.
+ */
+class WorldEditBatchTest {
+    private static final int DIRT = BlockRegistry.DEARTH;
+    private static final int GRASS = BlockRegistry.GRASS;
+
+    private final WorldManager world = new WorldManager((x, y, z, blocks) -> {});
+    private final Map<ChunkCoord, Integer> notified = new HashMap<>();
+
+    @BeforeEach
+    void load() {
+        for (int x = -1; x <= 1; x++) {
+            for (int z = -1; z <= 1; z++) {
+                world.addColumn(world.prepareColumn(x, z));
+            }
+        }
+        world.addListener(new ChunkListener() {
+            @Override
+            public void onChunkChanged(Chunk chunk) {
+                notified.merge(chunk.getPosition(), 1, Integer::sum);
+            }
+        });
+    }
+
+    private static boolean inside(int x, int y, int z, int x0, int y0, int z0, int x1, int y1, int z1) {
+        return x >= x0 && x <= x1 && y >= y0 && y <= y1 && z >= z0 && z <= z1;
+    }
+
+    @Test
+    void operationsApplyInOrderAcrossSections() {
+        // Remplissage à cheval sur x = 0, z = 0 et y = 16, remplacement d'une partie, puis un bloc seul
+        int changed = new WorldEditBatch(world)
+                .fill(4, 20, 4, -4, 10, -4, DIRT)
+                .replace(-2, 12, -2, 2, 18, 2, DIRT, GRASS)
+                .set(0, 15, 0, BlockRegistry.AIR)
+                .commit();
+        assertEquals(9 * 11 * 9 - 1, changed);
+
+        for (int x = -6; x <= 6; x++) {
+            for (int y = 8; y <= 22; y++) {
+                for (int z = -6; z <= 6; z++) {
+                    int expected = BlockRegistry.AIR;
+                    if (inside(x, y, z, -4, 10, -4, 4, 20, 4)) expected = DIRT;
+                    if (inside(x, y, z, -2, 12, -2, 2, 18, 2)) expected = GRASS;
+                    if (x == 0 && y == 15 && z == 0) expected = BlockRegistry.AIR;
+                    assertEquals(expected, world.getBlock(x, y, z), x + "," + y + "," + z);
+                }
+            }
+        }
+    }
+
+    @Test
+    void replaceBeforeFillMatchesNothing() {
+        new WorldEditBatch(world)
+                .replace(-2, 12, -2, 2, 18, 2, DIRT, GRASS)
+                .fill(-4, 10, -4, 4, 20, 4, DIRT)
+                .commit();
+        assertEquals(DIRT, world.getBlock(0, 15, 0));
+        assertEquals(DIRT, world.getBlock(-2, 12, -2));
+    }
+
+    @Test
+    void eachChunkIsNotifiedOncePerCommit() {
+        WorldEditBatch batch = new WorldEditBatch(world);
+        // Plusieurs opérations par section, sur huit sections
+        for (int i = 0; i < 10; i++) {
+            batch.fill(-8 + i, 8, -8, 8 - i, 24, 8, i % 2 == 0 ? DIRT : GRASS);
+        }
+        batch.commit();
+
+        for (int cx = -1; cx <= 0; cx++) {
+            for (int cy = 0; cy <= 1; cy++) {
+                for (int cz = -1; cz <= 0; cz++) {
+                    assertTrue(notified.containsKey(new ChunkCoord(cx, cy, cz)), cx + "," + cy + "," + cz);
+                }
+            }
+        }
+        notified.forEach((p, count) -> assertEquals(1, count, "notifications de " + p));
+
+        // Second lot : de nouveau une notification par chunk
+        notified.clear();
+        new WorldEditBatch(world).fill(-8, 8, -8, 8, 24, 8, GRASS).commit();
+        notified.forEach((p, count) -> assertEquals(1, count, "notifications de " + p));
+
+        // Un lot qui ne change rien ne prévient personne
+        notified.clear();
+        assertEquals(0, new WorldEditBatch(world).fill(-8, 8, -8, 8, 24, 8, GRASS).commit());
+        assertTrue(notified.isEmpty());
+    }
+}
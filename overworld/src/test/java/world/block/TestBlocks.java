@@ -0,0 +1,38 @@
+package world.block;
+
+/**
+ * Blocs factices pour les tests qui manipulent des identifiants au-delà des blocs du jeu.
+ */
+public final class TestBlocks {
+    private static short lamp = -1;
+
+    private TestBlocks() {}
+
+    private static final class TestBlock extends Block {
+        TestBlock(int index) {
+            super("test_" + index, true, true, MeshCube.FULL);
+        }
+
+        TestBlock(String name, int lightEmission) {
+            super(name, false, true, MeshCube.FULL, lightEmission);
+        }
+
+        @Override
+        public String getTextureName() {
+            return null;
+        }
+    }
+
+    // Enregistre des blocs factices jusqu'à ce que l'identifiant maxId existe
+    public static synchronized void registerUpTo(int maxId) {
+        while (BlockRegistry.size() <= maxId) {
+            BlockRegistry.register(new TestBlock(BlockRegistry.size()));
+        }
+    }
+
+    // Bloc transparent qui émet de la lumière, enregistré une seule fois
+    public static synchronized short lamp() {
+        if (lamp < 0) lamp = BlockRegistry.register(new TestBlock("test_lamp", 14));
+        return lamp;
+    }
+}
@@ -0,0 +1,117 @@
+package world.chunk;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import world.block.BlockRegistry;
+import world.block.TestBlocks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockStorageTest {
+
+    @BeforeAll
+    static void registerBlocks() {
+        TestBlocks.registerUpTo(300);
+    }
+
+    // distinct identifiants non nuls en plus de l'air : la palette passe à la largeur attendue
+    static BlockStorage filled(int distinct) {
+        BlockStorage blocks = new BlockStorage();
+        for (int i = 0; i < BlockStorage.VOLUME; i++) {
+            blocks.setAt(i, 1 + (i * 7919) % distinct);
+        }
+        return blocks;
+    }
+
+    static BlockStorage roundTrip(BlockStorage blocks) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.serializedSize());
+        blocks.writeTo(buffer);
+        assertEquals(blocks.serializedSize(), buffer.position());
+
+        BlockStorage read = new BlockStorage();
+        read.readFrom(buffer.flip());
+        assertFalse(buffer.hasRemaining());
+        return read;
+    }
+
+    static void assertSameBlocks(BlockStorage expected, BlockStorage actual) {
+        for (int i = 0; i < BlockStorage.VOLUME; i++) {
+            assertEquals(expected.getAt(i), actual.getAt(i), "case " + i);
+        }
+        assertEquals(expected.getNonAirCount(), actual.getNonAirCount());
+    }
+
+    @ParameterizedTest
+    @CsvSource({"1, 1", "3, 2", "15, 4", "255, 8", "300, 16"})
+    void roundTripKeepsEveryPaletteWidth(int distinct, int bits) throws IOException {
+        BlockStorage blocks = filled(distinct);
+        assertEquals(bits, blocks.getBitsPerEntry());
+
+        BlockStorage read = roundTrip(blocks);
+        assertEquals(bits, read.getBitsPerEntry());
+        assertSameBlocks(blocks, read);
+    }
+
+    @Test
+    void roundTripOfEmptyStorage() throws IOException {
+        BlockStorage read = roundTrip(new BlockStorage());
+        assertTrue(read.isEmpty());
+        assertSameBlocks(new BlockStorage(), read);
+    }
+
+    @Test
+    void roundTripOfUniformStorage() throws IOException {
+        BlockStorage blocks = new BlockStorage();
+        blocks.fill(42);
+        BlockStorage read = roundTrip(blocks);
+        assertEquals(42, read.getUniformId());
+        assertSameBlocks(blocks, read);
+    }
+
+    @Test
+    void readFromRejectsUnknownWidth() {
+        ByteBuffer buffer = ByteBuffer.allocate(3).put((byte) 3).putShort((short) 1).flip();
+        assertThrows(IOException.class, () -> new BlockStorage().readFrom(buffer));
+    }
+
+    // Écrit par une version qui connaît plus de blocs : rejeté au lieu de déborder des tables du registre
+    @Test
+    void readFromRejectsUnknownPaletteIds() {
+        BlockStorage blocks = new BlockStorage();
+        blocks.setAt(5, 1);
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.serializedSize());
+        blocks.writeTo(buffer);
+        buffer.putShort(1 + 2 + 2, (short) BlockRegistry.size()); // deuxième entrée de palette
+
+        BlockStorage read = new BlockStorage();
+        read.setAt(0, 2);
+        assertThrows(IOException.class, () -> read.readFrom(buffer.flip()));
+        assertEquals(2, read.getAt(0), "section laissée intacte");
+    }
+
+    @Test
+    void readFromRejectsUnknownDirectIds() {
+        BlockStorage blocks = filled(300);
+        assertEquals(16, blocks.getBitsPerEntry());
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.serializedSize());
+        blocks.writeTo(buffer);
+        buffer.putShort(buffer.position() - 2, (short) BlockRegistry.size()); // dernière case
+
+        assertThrows(IOException.class, () -> new BlockStorage().readFrom(buffer.flip()));
+    }
+
+    @Test
+    void readFromRejectsTruncatedData() {
+        BlockStorage blocks = filled(15);
+        ByteBuffer buffer = ByteBuffer.allocate(blocks.serializedSize());
+        blocks.writeTo(buffer);
+        buffer.flip().limit(buffer.limit() - 1);
+
+        assertThrows(IOException.class, () -> new BlockStorage().readFrom(buffer));
+    }
+}
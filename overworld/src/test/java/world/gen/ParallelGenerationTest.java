@@ -0,0 +1,56 @@
+package world.gen;
+
+import org.junit.jupiter.api.Test;
+import world.ChunkCoord;
+import world.ChunkStreamingService;
+import world.WorldManager;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * La génération parallèle du chargement progressif donne le même monde quel que soit le nombre
+ * de threads.
+ */
+class ParallelGenerationTest {
+    private static final long SEED = 1234L;
+    private static final int VIEW_DISTANCE = 4;
+
+    private static WorldManager stream(int threads) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            WorldManager world = new WorldManager(new NoiseTerrainGenerator(SEED), pool);
+            ChunkStreamingService streaming = new ChunkStreamingService(world, VIEW_DISTANCE, 1);
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            do {
+                streaming.update(0, 0);
+                Thread.sleep(1);
+                assertTrue(System.nanoTime() < deadline, "chargement trop long");
+            } while (streaming.getPendingCount() > 0 || streaming.getLoadedColumnCount() == 0);
+            return world;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void sameWorldWithOneOrManyThreads() throws InterruptedException {
+        WorldManager sequential = stream(1);
+        WorldManager parallel = stream(4);
+
+        assertEquals(sequential.getLoadedChunk().size(), parallel.getLoadedChunk().size());
+        short[] expected = new short[BlockStorage.VOLUME];
+        short[] actual = new short[BlockStorage.VOLUME];
+        sequential.getLoadedChunk().forEachValue(chunk -> {
+            ChunkCoord p = chunk.getPosition();
+            Chunk other = parallel.getChunk(p.x(), p.y(), p.z());
+            assertNotNull(other, "section " + p);
+            chunk.getBlocks().copyTo(expected);
+            other.getBlocks().copyTo(actual);
+            assertArrayEquals(expected, actual, "section " + p);
+        });
+    }
+}
@@ -0,0 +1,108 @@
+package world.light;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.block.TestBlocks;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+import world.chunk.LightStorage;
+import world.gen.ChunkGenerator;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Les mises à jour incrémentales donnent la même lumière qu'un éclairage complet du résultat.
+ */
+class LightEngineTest {
+    private static final int RADIUS = 1;
+    private static short lamp;
+
+    // Sol plein sur la moitié basse de la première section, de l'air au-dessus
+    private static final ChunkGenerator FLOOR = (chunkX, chunkY, chunkZ, blocks) -> {
+        if (chunkY == 0) blocks.fillBox(0, 0, 0, 15, 7, 15, BlockRegistry.DEARTH);
+    };
+
+    @BeforeAll
+    static void registerLamp() {
+        lamp = TestBlocks.lamp();
+    }
+
+    private static WorldManager load(ChunkGenerator generator) {
+        WorldManager world = new WorldManager(generator);
+        for (int x = -RADIUS; x <= RADIUS; x++) {
+            for (int z = -RADIUS; z <= RADIUS; z++) {
+                world.addColumn(world.prepareColumn(x, z));
+            }
+        }
+        return world;
+    }
+
+    // Monde chargé d'un coup avec les blocs actuels de edited
+    private static void assertSameAsFullRelight(WorldManager edited, int step) {
+        WorldManager reference = load((chunkX, chunkY, chunkZ, blocks) -> {
+            short[] cells = new short[BlockStorage.VOLUME];
+            edited.getChunk(chunkX, chunkY, chunkZ).getBlocks().copyTo(cells);
+            for (int i = 0; i < BlockStorage.VOLUME; i++) {
+                blocks.setAt(i, cells[i] & 0xFFFF);
+            }
+        });
+
+        reference.getLoadedChunk().forEachValue(expected -> {
+            ChunkCoord p = expected.getPosition();
+            Chunk actual = edited.getChunk(p.x(), p.y(), p.z());
+            for (int i = 0; i < BlockStorage.VOLUME; i++) {
+                for (int channel = LightStorage.SKY; channel <= LightStorage.BLOCK; channel++) {
+                    int got = actual.getLight().get(channel, i);
+                    int want = expected.getLight().get(channel, i);
+                    if (got != want) {
+                        fail("après " + step + " modifications, canal " + channel + " en "
+                                + ((p.x() << 4) + (i & 0xF)) + "," + ((p.y() << 4) + (i >>> 8)) + ","
+                                + ((p.z() << 4) + ((i >>> 4) & 0xF)) + " : " + got + " au lieu de " + want);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    void randomEditsAcrossBordersMatchFullRelight() {
+        WorldManager world = load(FLOOR);
+        Random random = new Random(42);
+        int[] ids = {BlockRegistry.AIR, BlockRegistry.DEARTH, lamp};
+
+        // Boîte centrée sur les frontières x = 0, z = 0 et y = 16
+        for (int step = 1; step <= 600; step++) {
+            int x = random.nextInt(24) - 12;
+            int y = 4 + random.nextInt(24);
+            int z = random.nextInt(24) - 12;
+            world.setBlock(x, y, z, ids[random.nextInt(ids.length)]);
+            if (step % 150 == 0) assertSameAsFullRelight(world, step);
+        }
+    }
+
+    @Test
+    void roofOverLampThenRemoved() {
+        WorldManager world = load(FLOOR);
+        // Lampe sous un toit qui recouvre deux chunks, puis toit retiré
+        world.setBlock(0, 8, 0, lamp);
+        for (int x = -4; x <= 4; x++) {
+            for (int z = -4; z <= 4; z++) {
+                world.setBlock(x, 12, z, BlockRegistry.DEARTH);
+            }
+        }
+        assertSameAsFullRelight(world, 1);
+
+        for (int x = -4; x <= 4; x++) {
+            for (int z = -4; z <= 4; z++) {
+                world.setBlock(x, 12, z, BlockRegistry.AIR);
+            }
+        }
+        world.setBlock(0, 8, 0, BlockRegistry.AIR);
+        assertSameAsFullRelight(world, 2);
+    }
+}
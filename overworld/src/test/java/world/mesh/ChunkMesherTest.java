@@ -0,0 +1,131 @@
+package world.mesh;
+
+import org.junit.jupiter.api.Test;
+import world.ChunkCoord;
+import world.ChunkListener;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.chunk.Chunk;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Nombre de quads pour des formes connues, sans contexte OpenGL. Les voisins non chargés
+ * comptent comme de l'air.
+ */
+class ChunkMesherTest {
+    private static final int ID = BlockRegistry.DEARTH;
+
+    private final WorldManager world = new WorldManager((x, y, z, blocks) -> {});
+    private final MeshBuffer out = new MeshBuffer();
+
+    private static Chunk box(int x0, int y0, int z0, int x1, int y1, int z1) {
+        Chunk chunk = new Chunk(new ChunkCoord(0, 0, 0));
+        chunk.getBlocks().fillBox(x0, y0, z0, x1, y1, z1, ID);
+        return chunk;
+    }
+
+    private int quads(ChunkMesher.Mode mode, Chunk chunk) {
+        new ChunkMesher(mode).build(chunk, world, out);
+        assertEquals(out.getQuadCount() * 4, out.getVertexCount());
+        assertEquals(out.getQuadCount() * 6, out.getIndexCount());
+        return out.getQuadCount();
+    }
+
+    @Test
+    void emptyChunkHasNoQuads() {
+        Chunk chunk = new Chunk(new ChunkCoord(0, 0, 0));
+        assertEquals(0, quads(ChunkMesher.Mode.CULLED, chunk));
+        assertEquals(0, quads(ChunkMesher.Mode.GREEDY, chunk));
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    void singleBlockHasSixFaces() {
+        Chunk chunk = box(5, 6, 7, 5, 6, 7);
+        assertEquals(6, quads(ChunkMesher.Mode.CULLED, chunk));
+        assertEquals(6, quads(ChunkMesher.Mode.GREEDY, chunk));
+    }
+
+    @Test
+    void flatSlabIsMergedByGreedyMeshing() {
+        Chunk chunk = box(0, 3, 0, 15, 3, 15);
+        // Dessus et dessous : une face par case ; côtés : 16 par bord
+        assertEquals(2 * 256 + 4 * 16, quads(ChunkMesher.Mode.CULLED, chunk));
+        assertEquals(6, quads(ChunkMesher.Mode.GREEDY, chunk));
+    }
+
+    @Test
+    void buriedCellsAreCulled() {
+        Chunk chunk = box(0, 0, 0, 15, 15, 15);
+        // Seules les faces de l'enveloppe restent, aucune face intérieure
+        assertEquals(6 * 256, quads(ChunkMesher.Mode.CULLED, chunk));
+        assertEquals(6, quads(ChunkMesher.Mode.GREEDY, chunk));
+    }
+
+    @Test
+    void loadedNeighbourHidesSharedFace() {
+        Chunk chunk = box(0, 0, 0, 15, 15, 15);
+        Chunk east = new Chunk(new ChunkCoord(1, 0, 0));
+        east.getBlocks().fill(ID);
+        world.addChunk(east);
+
+        assertEquals(5 * 256, quads(ChunkMesher.Mode.CULLED, chunk));
+        assertEquals(5, quads(ChunkMesher.Mode.GREEDY, chunk));
+    }
+
+    @Test
+    void instancesOnlyForBlocksWithAVisibleFace() {
+        InstanceBuffer instances = new InstanceBuffer();
+        ChunkInstanceBuilder builder = new ChunkInstanceBuilder();
+
+        builder.build(box(5, 6, 7, 5, 6, 7), world, instances);
+        assertEquals(1, instances.getCount());
+        assertEquals(InstanceBuffer.pack(5, 6, 7, ID), instances.getInstances().getInt(0));
+
+        // Cube plein : l'intérieur 14³ est enterré
+        builder.build(box(0, 0, 0, 15, 15, 15), world, instances);
+        assertEquals(16 * 16 * 16 - 14 * 14 * 14, instances.getCount());
+    }
+
+    // Somme des occlusions de tous les sommets
+    private static int occlusion(MeshBuffer mesh) {
+        ByteBuffer vertices = mesh.getVertices();
+        int sum = 0;
+        for (int i = 0; i < mesh.getVertexCount(); i++) {
+            sum += vertices.get(i * MeshBuffer.VERTEX_SIZE + MeshBuffer.OCCLUSION_OFFSET) & 0xFF;
+        }
+        return sum;
+    }
+
+    @Test
+    void cornerEditRemeshesDiagonalNeighbour() {
+        world.addChunk(new Chunk(new ChunkCoord(0, 0, 0)));
+        // Bloc dans le coin de la section diagonale : le sommet (16, 16, 16) de sa face du dessous
+        // lit la case (15, 15, 15) de la section (0, 0, 0)
+        Chunk diagonal = new Chunk(new ChunkCoord(1, 1, 1));
+        diagonal.getBlocks().set(0, 0, 0, ID);
+        world.addChunk(diagonal);
+
+        List<Chunk> changed = new ArrayList<>();
+        world.addListener(new ChunkListener() {
+            @Override
+            public void onChunkChanged(Chunk chunk) {
+                changed.add(chunk);
+            }
+        });
+
+        ChunkMesher mesher = new ChunkMesher(ChunkMesher.Mode.GREEDY);
+        mesher.build(diagonal, world, out);
+        int before = occlusion(out);
+
+        world.setBlock(15, 15, 15, ID);
+        assertTrue(changed.contains(diagonal), "la section diagonale doit être remaillée");
+        mesher.build(diagonal, world, out);
+        assertNotEquals(before, occlusion(out));
+    }
+}
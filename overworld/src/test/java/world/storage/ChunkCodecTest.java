@@ -0,0 +1,141 @@
+package world.storage;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.TestBlocks;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkCodecTest {
+    private static final int X = 3, Z = -7;
+
+    @BeforeAll
+    static void registerBlocks() {
+        TestBlocks.registerUpTo(300);
+    }
+
+    // Une section par largeur de palette, la dernière vide
+    private static Chunk[] sampleColumn() {
+        int[] distinct = {1, 15, 300, 0};
+        Chunk[] column = new Chunk[WorldManager.HEIGHT_IN_CHUNKS];
+        for (int y = 0; y < column.length; y++) {
+            column[y] = new Chunk(new ChunkCoord(X, y, Z));
+            BlockStorage blocks = column[y].getBlocks();
+            for (int i = 0; distinct[y] > 0 && i < BlockStorage.VOLUME; i++) {
+                blocks.setAt(i, 1 + (i * 31 + y) % distinct[y]);
+            }
+        }
+        return column;
+    }
+
+    private static byte[] encode(Chunk[] column) {
+        ByteBuffer encoded = ChunkCodec.encodeColumn(column);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    void roundTripKeepsEverySection() throws IOException {
+        Chunk[] column = sampleColumn();
+        Chunk[] decoded = ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(encode(column)));
+
+        assertEquals(column.length, decoded.length);
+        for (int y = 0; y < column.length; y++) {
+            assertEquals(new ChunkCoord(X, y, Z), decoded[y].getPosition());
+            BlockStorage expected = column[y].getBlocks(), actual = decoded[y].getBlocks();
+            assertEquals(expected.getBitsPerEntry(), actual.getBitsPerEntry());
+            for (int i = 0; i < BlockStorage.VOLUME; i++) {
+                assertEquals(expected.getAt(i), actual.getAt(i));
+            }
+        }
+        assertTrue(decoded[3].getBlocks().isEmpty());
+    }
+
+    @Test
+    void emptyColumnHasNoSections() throws IOException {
+        Chunk[] column = new Chunk[WorldManager.HEIGHT_IN_CHUNKS];
+        byte[] bytes = encode(column);
+        assertEquals(4 + 1 + 1, bytes.length);
+
+        for (Chunk chunk : ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(bytes))) {
+            assertTrue(chunk.getBlocks().isEmpty());
+        }
+    }
+
+    @Test
+    void sectionsStayCompressedUntilRead() throws IOException {
+        Chunk[] decoded = ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(encode(sampleColumn())));
+        assertFalse(decoded[0].isDecompressed());
+        decoded[0].getBlocks();
+        assertTrue(decoded[0].isDecompressed());
+    }
+
+    @Test
+    void everyTruncationIsAnIOException() {
+        byte[] bytes = encode(sampleColumn());
+        for (int length = 0; length < bytes.length; length++) {
+            ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, length);
+            assertThrows(IOException.class, () -> ChunkCodec.decodeColumn(X, Z, truncated), "longueur " + length);
+        }
+    }
+
+    @Test
+    void garbageHeaderIsAnIOException() {
+        byte[] bytes = encode(sampleColumn());
+        bytes[0] ^= 0x55;
+        assertThrows(IOException.class, () -> ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(bytes)));
+
+        // Taille compressée négative
+        byte[] lengths = encode(sampleColumn());
+        ByteBuffer.wrap(lengths).putInt(6 + 1 + 4, -1);
+        assertThrows(IOException.class, () -> ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(lengths)));
+
+        // Taille décompressée énorme
+        byte[] raw = encode(sampleColumn());
+        ByteBuffer.wrap(raw).putInt(6 + 1, Integer.MAX_VALUE);
+        assertThrows(IOException.class, () -> ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(raw)));
+    }
+
+    @Test
+    void corruptDeflateStreamFailsOnlyWhenRead() throws IOException {
+        byte[] bytes = encode(sampleColumn());
+        // Premier octet compressé de la première section
+        bytes[6 + 1 + 4 + 4] ^= (byte) 0xFF;
+
+        Chunk[] decoded = ChunkCodec.decodeColumn(X, Z, ByteBuffer.wrap(bytes));
+        assertThrows(IllegalStateException.class, decoded[0]::getBlocks);
+    }
+
+    @Test
+    void readColumnRegeneratesCorruptSections(@TempDir Path directory) throws IOException {
+        WorldManager world = new WorldManager((x, y, z, blocks) -> blocks.fill(9));
+        byte[] bytes = encode(sampleColumn());
+        bytes[6 + 1 + 4 + 4] ^= (byte) 0xFF;
+
+        try (RegionStorage storage = new RegionStorage(directory)) {
+            storage.write(X, Z, ByteBuffer.wrap(bytes));
+            world.setStorage(storage);
+
+            Chunk[] column = world.readColumn(X, Z);
+            assertEquals(9, column[0].getBlocks().getUniformId());
+            // Les sections saines sont lues normalement
+            assertEquals(sampleColumn()[1].getBlocks().getAt(0), column[1].getBlocks().getAt(0));
+
+            // En-tête illisible : toute la colonne est régénérée
+            storage.write(X, Z, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+            for (Chunk chunk : world.readColumn(X, Z)) {
+                assertEquals(9, chunk.getBlocks().getUniformId());
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package world.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reprise après un arrêt brutal : journaux écrits octet par octet comme sur le disque, puis
+ * réouverture du monde.
+ */
+class EditJournalTest {
+    private static final int CELL = BlockStorage.index(1, 2, 3);
+    private static final int OTHER_CELL = BlockStorage.index(15, 0, 7);
+
+    // Enregistrement au format de EditJournal.RECORD_SIZE, CRC compris
+    private static byte[] record(int chunkX, int chunkY, int chunkZ, int index, int oldId, int newId) {
+        ByteBuffer out = ByteBuffer.allocate(EditJournal.RECORD_SIZE);
+        out.putLong(ChunkCoord.pack(chunkX, chunkY, chunkZ))
+                .putShort((short) index)
+                .putShort((short) oldId)
+                .putShort((short) newId)
+                .putLong(0L);
+        CRC32 crc = new CRC32();
+        crc.update(out.array(), 0, EditJournal.RECORD_SIZE - 4);
+        out.putInt((int) crc.getValue());
+        return out.array();
+    }
+
+    private static byte[] concat(byte[]... records) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] record : records) out.writeBytes(record);
+        return out.toByteArray();
+    }
+
+    private static int block(Chunk[] column, int chunkY, int index) {
+        return column[chunkY].getBlocks().getAt(index);
+    }
+
+    @Test
+    void crashDuringCompactionIsReplayedOnReopen(@TempDir Path directory) throws IOException {
+        // Arrêt pendant un report : journal.old pas encore reporté, journal.log plus récent dont le
+        // dernier enregistrement est coupé
+        Files.write(directory.resolve(EditJournal.OLD_FILE_NAME), concat(
+                record(0, 0, 0, CELL, 0, BlockRegistry.DEARTH),
+                record(1, 1, 0, OTHER_CELL, 0, BlockRegistry.GRASS)));
+        byte[] torn = record(0, 0, 0, OTHER_CELL, 0, BlockRegistry.DEARTH);
+        Files.write(directory.resolve(EditJournal.FILE_NAME), concat(
+                record(0, 0, 0, CELL, BlockRegistry.DEARTH, BlockRegistry.GRASS),
+                Arrays.copyOf(torn, 10)));
+
+        WorldManager world = new WorldManager((x, y, z, blocks) -> {});
+        try (RegionStorage storage = new RegionStorage(directory)) {
+            world.setStorage(storage);
+            EditJournal journal = new EditJournal(directory, world, storage);
+            world.setJournal(journal);
+
+            // journal.old reporté dans les régions à l'ouverture, la fin coupée de journal.log écartée
+            assertFalse(Files.exists(directory.resolve(EditJournal.OLD_FILE_NAME)));
+            assertEquals(EditJournal.RECORD_SIZE, Files.size(directory.resolve(EditJournal.FILE_NAME)));
+            assertEquals(BlockRegistry.DEARTH, block(world.readColumn(0, 0), 0, CELL));
+            assertEquals(BlockRegistry.GRASS, block(world.readColumn(1, 0), 1, OTHER_CELL));
+
+            // journal.log encore en attente : réappliqué au chargement
+            Chunk[] column = world.loadColumn(0, 0);
+            assertEquals(BlockRegistry.GRASS, block(column, 0, CELL));
+            assertEquals(0, block(column, 0, OTHER_CELL));
+
+            journal.close();
+        }
+
+        // Tout est dans les régions après la fermeture
+        try (RegionStorage storage = new RegionStorage(directory)) {
+            WorldManager reopened = new WorldManager((x, y, z, blocks) -> {});
+            reopened.setStorage(storage);
+            assertEquals(BlockRegistry.GRASS, block(reopened.readColumn(0, 0), 0, CELL));
+            assertEquals(0, block(reopened.readColumn(0, 0), 0, OTHER_CELL));
+            assertEquals(BlockRegistry.GRASS, block(reopened.readColumn(1, 0), 1, OTHER_CELL));
+        }
+    }
+
+    @Test
+    void corruptRecordStopsReplay(@TempDir Path directory) throws IOException {
+        byte[] corrupt = record(0, 0, 0, OTHER_CELL, 0, BlockRegistry.GRASS);
+        corrupt[9] ^= 1;
+        Files.write(directory.resolve(EditJournal.FILE_NAME), concat(
+                record(0, 0, 0, CELL, 0, BlockRegistry.DEARTH),
+                corrupt,
+                record(0, 0, 0, CELL, BlockRegistry.DEARTH, BlockRegistry.GRASS)));
+
+        WorldManager world = new WorldManager((x, y, z, blocks) -> {});
+        try (RegionStorage storage = new RegionStorage(directory);
+             EditJournal journal = new EditJournal(directory, world, storage)) {
+            world.setStorage(storage);
+            world.setJournal(journal);
+
+            // Rien n'est rejoué après le premier enregistrement invalide
+            Chunk[] column = world.loadColumn(0, 0);
+            assertEquals(BlockRegistry.DEARTH, block(column, 0, CELL));
+            assertEquals(0, block(column, 0, OTHER_CELL));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package world.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import world.ChunkCoord;
+import world.WorldManager;
+import world.block.BlockRegistry;
+import world.chunk.BlockStorage;
+import world.chunk.Chunk;
+import world.chunk.LightStorage;
+import world.gen.ChunkGenerator;
+import world.mesh.ChunkMesher;
+import world.mesh.MeshBuffer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Chargement d'un monde sauvegardé puis maillage de toutes ses sections, comme au démarrage :
+ * les sections enterrées que rien ne lit doivent rester compressées, et le résultat (cartes de
+ * hauteur, lumière, maillages) doit être celui d'un monde entièrement décodé.
+ */
+class LazyColumnLoadTest {
+    private static final int RADIUS = 3;
+
+    // Deux sections pleines, une surface irrégulière, puis de l'air
+    private static final ChunkGenerator TERRAIN = (chunkX, chunkY, chunkZ, blocks) -> {
+        if (chunkY < 2) {
+            blocks.fill(BlockRegistry.DEARTH);
+        } else if (chunkY == 2) {
+            for (int z = 0; z < Chunk.SIZE; z++) {
+                for (int x = 0; x < Chunk.SIZE; x++) {
+                    int top = Math.floorMod(chunkX * 16 + x + 3 * (chunkZ * 16 + z), 7);
+                    blocks.fillBox(x, 0, z, x, top, z, BlockRegistry.DEARTH);
+                    blocks.set(x, top + 1, z, BlockRegistry.GRASS);
+                }
+            }
+        }
+    };
+
+    private static WorldManager load(RegionStorage storage) {
+        WorldManager world = new WorldManager(TERRAIN);
+        world.setStorage(storage);
+        for (int x = -RADIUS; x <= RADIUS; x++) {
+            for (int z = -RADIUS; z <= RADIUS; z++) {
+                world.addColumn(world.prepareColumn(x, z));
+            }
+        }
+        return world;
+    }
+
+    @Test
+    void buriedSectionsStayCompressed(@TempDir Path directory) throws IOException {
+        try (RegionStorage storage = new RegionStorage(directory)) {
+            WorldManager generated = new WorldManager(TERRAIN);
+            for (int x = -RADIUS; x <= RADIUS; x++) {
+                for (int z = -RADIUS; z <= RADIUS; z++) {
+                    storage.write(x, z, ChunkCodec.encodeColumn(generated.readColumn(x, z)));
+                }
+            }
+
+            WorldManager world = load(storage);
+            ChunkMesher mesher = new ChunkMesher(ChunkMesher.Mode.GREEDY);
+            MeshBuffer out = new MeshBuffer();
+            world.getLoadedChunk().forEachValue(chunk -> mesher.build(chunk, world, out));
+
+            int compressed = 0, total = 0;
+            for (int x = -RADIUS; x <= RADIUS; x++) {
+                for (int z = -RADIUS; z <= RADIUS; z++) {
+                    for (int y = 0; y < WorldManager.HEIGHT_IN_CHUNKS; y++) {
+                        total++;
+                        if (!world.getChunk(x, y, z).isDecompressed()) compressed++;
+                    }
+                    // Section 1 : entourée de sections pleines dès qu'elle n'est pas au bord
+                    boolean inner = Math.abs(x) < RADIUS && Math.abs(z) < RADIUS;
+                    assertEquals(inner, !world.getChunk(x, 1, z).isDecompressed(), "section 1 de " + x + "," + z);
+                    // La surface est maillée, donc décodée
+                    assertTrue(world.getChunk(x, 2, z).isDecompressed());
+                }
+            }
+            int inner = (2 * RADIUS - 1) * (2 * RADIUS - 1);
+            System.out.printf("Sections encore compressées après chargement et maillage : %d / %d%n", compressed, total);
+            assertEquals(inner, compressed);
+
+            // Même monde, entièrement généré donc décodé : mêmes hauteurs, même lumière, mêmes maillages
+            WorldManager reference = new WorldManager(TERRAIN);
+            for (int x = -RADIUS; x <= RADIUS; x++) {
+                for (int z = -RADIUS; z <= RADIUS; z++) {
+                    reference.addColumn(reference.prepareColumn(x, z));
+                }
+            }
+            MeshBuffer expected = new MeshBuffer();
+            reference.getLoadedChunk().forEachValue(chunk -> {
+                ChunkCoord p = chunk.getPosition();
+                Chunk loaded = world.getChunk(p.x(), p.y(), p.z());
+                mesher.build(chunk, reference, expected);
+                mesher.build(loaded, world, out);
+                assertEquals(expected.getQuadCount(), out.getQuadCount(), "maillage de " + p);
+                for (int i = 0; i < BlockStorage.VOLUME; i++) {
+                    assertEquals(chunk.getLight().get(LightStorage.SKY, i), loaded.getLight().get(LightStorage.SKY, i), "ciel de " + p);
+                }
+            });
+            for (int x = -RADIUS * 16; x < (RADIUS + 1) * 16; x += 5) {
+                for (int z = -RADIUS * 16; z < (RADIUS + 1) * 16; z += 3) {
+                    assertEquals(reference.getHighestOpaque(x, z), world.getHighestOpaque(x, z));
+                    assertEquals(reference.getHighestNonAir(x, z), world.getHighestNonAir(x, z));
+                }
+            }
+        }
+    }
+
+    // Une colonne réécrite sans avoir été décodée garde les mêmes octets
+    @Test
+    void untouchedSectionsAreRewrittenWithoutDecoding() throws IOException {
+        WorldManager world = new WorldManager(TERRAIN);
+        ByteBuffer first = ChunkCodec.encodeColumn(world.readColumn(0, 0));
+        Chunk[] decoded = ChunkCodec.decodeColumn(0, 0, first.duplicate());
+
+        ByteBuffer second = ChunkCodec.encodeColumn(decoded);
+        for (Chunk chunk : decoded) {
+            if (chunk.getSummary() != null) assertFalse(chunk.isDecompressed());
+        }
+        assertEquals(first, second);
+    }
+}
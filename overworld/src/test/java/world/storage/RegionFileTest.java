@@ -0,0 +1,106 @@
+package world.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionFileTest {
+
+    @Test
+    void reopenKeepsColumns(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("r.0.0.region");
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(3, 4, ByteBuffer.wrap(new byte[]{1, 2, 3}));
+            region.write(5, 6, ByteBuffer.wrap(new byte[RegionFile.SECTOR_SIZE + 1]));
+        }
+        try (RegionFile region = new RegionFile(path)) {
+            assertArrayEquals(new byte[]{1, 2, 3}, region.readCopy(3, 4));
+            assertEquals(RegionFile.SECTOR_SIZE + 1, region.readCopy(5, 6).length);
+            assertNull(region.readCopy(0, 0));
+        }
+    }
+
+    @Test
+    void invalidHeaderEntriesAreTreatedAsAbsent(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("r.0.0.region");
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(0, 0, ByteBuffer.wrap(new byte[]{7, 7, 7}));
+        }
+        int validOffset;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer entry = ByteBuffer.allocate(4);
+            channel.read(entry, 0);
+            validOffset = entry.flip().getInt();
+            writeEntry(channel, 1, 0, 10);                  // dans l'en-tête
+            writeEntry(channel, 2, validOffset, -5);        // longueur négative
+            writeEntry(channel, 3, validOffset + 1000, 10); // après la fin du fichier
+            writeEntry(channel, 4, validOffset, 10);        // chevauche la colonne 0,0
+        }
+
+        try (RegionFile region = new RegionFile(path)) {
+            assertArrayEquals(new byte[]{7, 7, 7}, region.readCopy(0, 0));
+            for (int x = 1; x <= 4; x++) {
+                assertFalse(region.contains(x, 0));
+                assertNull(region.readCopy(x, 0));
+            }
+            // Les secteurs de 0,0 ne sont pas réattribués à une colonne dont l'entrée était fausse
+            region.write(4, 0, ByteBuffer.wrap(new byte[]{9}));
+            assertArrayEquals(new byte[]{7, 7, 7}, region.readCopy(0, 0));
+            assertArrayEquals(new byte[]{9}, region.readCopy(4, 0));
+        }
+    }
+
+    // Réécrire une colonne ne touche pas ses anciens secteurs avant le flush suivant
+    @Test
+    void rewriteGoesToFreshSectorsUntilFlush(@TempDir Path directory) throws IOException {
+        Path path = directory.resolve("r.0.0.region");
+        try (RegionFile region = new RegionFile(path)) {
+            region.write(0, 0, ByteBuffer.wrap(new byte[]{1, 1, 1}));
+            region.flush();
+            int first = readEntryOffset(path, 0);
+
+            region.write(0, 0, ByteBuffer.wrap(new byte[]{2, 2, 2}));
+            int second = readEntryOffset(path, 0);
+            assertNotEquals(first, second);
+            // L'ancienne version est encore intacte sur le disque
+            assertArrayEquals(new byte[]{1, 1, 1}, readSector(path, first, 3));
+
+            // Tant que le flush n'a pas eu lieu, une autre colonne ne reprend pas ces secteurs
+            region.write(1, 0, ByteBuffer.wrap(new byte[]{3}));
+            assertNotEquals(first, readEntryOffset(path, 1));
+
+            region.flush();
+            region.write(2, 0, ByteBuffer.wrap(new byte[]{4}));
+            assertEquals(first, readEntryOffset(path, 2));
+            assertArrayEquals(new byte[]{2, 2, 2}, region.readCopy(0, 0));
+            assertArrayEquals(new byte[]{3}, region.readCopy(1, 0));
+        }
+    }
+
+    private static int readEntryOffset(Path path, int localX) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer entry = ByteBuffer.allocate(4);
+            channel.read(entry, localX * 8L);
+            return entry.flip().getInt();
+        }
+    }
+
+    private static byte[] readSector(Path path, int sector, int length) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate(length);
+            channel.read(data, (long) sector * RegionFile.SECTOR_SIZE);
+            return data.array();
+        }
+    }
+
+    private static void writeEntry(FileChannel channel, int localX, int offset, int length) throws IOException {
+        channel.write(ByteBuffer.allocate(8).putInt(offset).putInt(length).flip(), localX * 8L);
+    }
+}
@@ -0,0 +1,58 @@
+package world.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorldBackupTest {
+
+    // Une colonne différente par sauvegarde, plus une colonne qui ne change jamais
+    @Test
+    void pruneKeepsNewestBackupsAndTheirObjects(@TempDir Path directory) throws Exception {
+        WorldBackup backup = new WorldBackup(directory.resolve("backups"));
+        try (RegionStorage storage = new RegionStorage(directory.resolve("world"))) {
+            storage.write(0, 0, ByteBuffer.wrap(new byte[]{42}));
+            for (byte i = 1; i <= 4; i++) {
+                storage.write(1, 0, ByteBuffer.wrap(new byte[]{i}));
+                backup.backup(storage);
+                Thread.sleep(2); // noms à la milliseconde
+            }
+            List<String> before = backup.listBackups();
+            assertEquals(4, before.size());
+            assertEquals(5, countObjects(directory));
+
+            assertEquals(2, backup.prune(2));
+            assertEquals(before.subList(2, 4), backup.listBackups());
+            // Objet commun + les deux versions encore citées
+            assertEquals(3, countObjects(directory));
+
+            try (RegionStorage restored = new RegionStorage(directory.resolve("restored"))) {
+                assertEquals(2, backup.restore(before.get(2), restored, (x, z) -> true));
+                assertArrayEquals(new byte[]{42}, readColumn(restored, 0, 0));
+                assertArrayEquals(new byte[]{3}, readColumn(restored, 1, 0));
+            }
+            assertEquals(0, backup.prune(2));
+        }
+    }
+
+    private static byte[] readColumn(RegionStorage storage, int chunkX, int chunkZ) throws IOException {
+        ByteBuffer data = storage.read(chunkX, chunkZ);
+        byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return bytes;
+    }
+
+    private static long countObjects(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory.resolve("backups").resolve("objects"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
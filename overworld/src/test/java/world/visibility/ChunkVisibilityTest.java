@@ -0,0 +1,66 @@
+package world.visibility;
+
+import org.joml.Matrix4f;
+import org.junit.jupiter.api.Test;
+import world.ChunkCoord;
+import world.chunk.Chunk;
+import world.util.LongObjectMap;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sections gardées ou écartées pour une caméra en perspective placée en (8, 8, 8), qui regarde
+ * vers -z avec 60° d'ouverture et un plan lointain à 100.
+ */
+class ChunkVisibilityTest {
+    private final Matrix4f projection = new Matrix4f().perspective((float) Math.toRadians(60), 1f, 0.1f, 100f);
+    private final Matrix4f view = new Matrix4f().lookAt(8, 8, 8, 8, 8, 0, 0, 1, 0);
+    private final LongObjectMap<Chunk> chunks = new LongObjectMap<>();
+
+    private void add(int x, int y, int z) {
+        chunks.put(ChunkCoord.pack(x, y, z), new Chunk(new ChunkCoord(x, y, z)));
+    }
+
+    private Set<ChunkCoord> visible(ChunkVisibility visibility) {
+        Set<ChunkCoord> result = new HashSet<>();
+        for (int i = 0; i < visibility.getVisibleCount(); i++) {
+            result.add(visibility.getVisible(i).getPosition());
+        }
+        return result;
+    }
+
+    @Test
+    void keepsSectionsInsideOrAcrossTheFrustum() {
+        add(0, 0, 0);   // contient la caméra
+        add(0, 0, -2);  // droit devant
+        add(1, 0, -1);  // à cheval sur le plan de droite : x 16..32, le champ va jusqu'à x ≈ 21.9 en z = -16
+        add(0, 0, 2);   // derrière la caméra
+        add(3, 0, -1);  // trop à droite
+        add(0, 5, -1);  // trop haut
+        add(0, 0, -8);  // au-delà du plan lointain
+
+        ChunkVisibility visibility = new ChunkVisibility();
+        visibility.update(projection, view, chunks);
+
+        assertEquals(Set.of(new ChunkCoord(0, 0, 0), new ChunkCoord(0, 0, -2), new ChunkCoord(1, 0, -1)),
+                visible(visibility));
+        assertEquals(chunks.size(), visibility.getTestedCount());
+        assertEquals(0, visibility.getOccludedCount());
+    }
+
+    @Test
+    void straddlingAndBehindSections() {
+        ChunkVisibility visibility = new ChunkVisibility();
+        visibility.update(projection, view, chunks);
+
+        assertTrue(visibility.isVisible(1, 0, -1));
+        // Même boîte décalée d'une section vers l'extérieur : entièrement hors du champ
+        assertFalse(visibility.isVisible(2, 0, -1));
+        // Derrière la caméra, même dans l'axe de visée
+        assertFalse(visibility.isVisible(0, 0, 1));
+        assertFalse(visibility.isVisible(0, 0, 2));
+    }
+}
@@ -16,6 +16,7 @@ public class Engine {
 
     public void run() {
         while(!renderer.window.windowShouldClose()) {
+            renderer.worldRender.getWorldManager().tick();
             renderer.render();
         }
 
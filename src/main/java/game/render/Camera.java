@@ -35,6 +35,12 @@ public class Camera {
     float ZoomSENSITIVITY =  2.0f;
     float FOV         =  45.0f;
 
+    // Demi-largeur de la vue orthographique à zoom 1, et bornes du zoom (plus grand = plus loin)
+    private static final float VIEW_EXTENT = 10.0f;
+    private static final float MIN_ZOOM = 0.5f;
+    private static final float MAX_ZOOM = 16.0f;
+    private float zoom = 1.0f;
+
     private WorldCoord cameraPos;
     private Vector3f cameraFront;
 
@@ -62,7 +68,8 @@ public class Camera {
         projection.get(matrixBufferProjection);
 
         cameraFront = new Vector3f(0.0f, 0.0f, -2.0f);
-        cameraPos = new WorldCoord(new Vector3f(0));
+        // Au niveau moyen du terrain généré
+        cameraPos = new WorldCoord(new Vector3f(0, 24, 0));
         cameraUp = new Vector3f(0.0f, 1.0f, 0.0f);
     }
 
@@ -80,6 +87,27 @@ public class Camera {
 
         if(glfwGetKey(window.getWindowID(), GLFW_KEY_SPACE) == GLFW_PRESS) applyMouvement(UP);
         else if(glfwGetKey(window.getWindowID(), GLFW_KEY_LEFT_SHIFT) == GLFW_PRESS) applyMouvement(DOWN);
+
+        if(glfwGetKey(window.getWindowID(), GLFW_KEY_MINUS) == GLFW_PRESS) applyZoom(1);
+        else if(glfwGetKey(window.getWindowID(), GLFW_KEY_EQUAL) == GLFW_PRESS) applyZoom(-1);
+    }
+
+    // Zoom exponentiel : la même durée d'appui double ou divise toujours la vue d'autant
+    private void applyZoom(int direction) {
+        float factor = (float) Math.pow(ZoomSENSITIVITY, direction * deltaTime);
+        setZoom(zoom * factor);
+    }
+
+    public void setZoom(float zoom) {
+        this.zoom = Math.clamp(zoom, MIN_ZOOM, MAX_ZOOM);
+        float extent = VIEW_EXTENT * this.zoom;
+        projection.setOrtho(-extent, extent, -extent, extent, -100.0f * this.zoom, 100.0f * this.zoom);
+        matrixBufferProjection.clear();
+        projection.get(matrixBufferProjection);
+    }
+
+    public float getZoom() {
+        return zoom;
     }
 
     private void applyMouvement(Camera_Movement mouvement) {
@@ -110,7 +138,7 @@ public class Camera {
         Matrix4f matrix = new Matrix4f();
 
         // Projection orthogonale
-        matrix.ortho(-10.0f, 10.0f, -10.0f, 10.0f, -100.0f, 100.0f);
+        matrix.ortho(-VIEW_EXTENT, VIEW_EXTENT, -VIEW_EXTENT, VIEW_EXTENT, -100.0f, 100.0f);
 
 
         return matrix;
@@ -136,6 +164,11 @@ public class Camera {
         return projection;
     }
 
+    // Point visé au centre de l'écran, en coordonnées monde
+    public Vector3f getPosition() {
+        return cameraPos.coord;
+    }
+
     public Matrix4f getView() {
         return view;
     }
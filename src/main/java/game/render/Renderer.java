@@ -1,8 +1,10 @@
 package game.render;
 
+import game.render.loader.AssetPreloader;
 import game.render.renderers.WorldRender;
 import window.Window;
 
+import static org.lwjgl.glfw.GLFW.glfwGetCursorPos;
 import static org.lwjgl.glfw.GLFW.glfwGetTime;
 import static org.lwjgl.opengl.GL11.*;
 
@@ -12,6 +14,9 @@ public class Renderer {
     private final Camera camera;
     float deltaTime;
     private double lastTime;
+    // Position de la souris, réutilisée à chaque image
+    private final double[] cursorX = new double[1];
+    private final double[] cursorY = new double[1];
 
     public Renderer() {
         int height = 800;
@@ -25,6 +30,8 @@ public class Renderer {
     private void init() {
         camera.init();
         worldRender.initialize();
+        // Ce que le démarrage a décodé et que personne n'a pris
+        AssetPreloader.discard();
     }
 
     public void render() {
@@ -38,11 +45,20 @@ public class Renderer {
         camera.setDeltaTime(deltaTime);
 
         clear();
+        updateHover();
         worldRender.render(camera);
         window.update();
         camera.update(window);
     }
 
+    // Position de la souris en coordonnées normalisées (-1..1, y vers le haut)
+    private void updateHover() {
+        glfwGetCursorPos(window.getWindowID(), cursorX, cursorY);
+        float ndcX = (float) (2.0 * cursorX[0] / window.getWidth() - 1.0);
+        float ndcY = (float) (1.0 - 2.0 * cursorY[0] / window.getHeight());
+        worldRender.updateHover(camera, ndcX, ndcY);
+    }
+
     private void clear() {
         glEnable(GL_DEPTH_TEST);
         glClear(GL_COLOR_BUFFER_BIT | GL_DEPTH_BUFFER_BIT); // Clear the framebuffer
@@ -0,0 +1,127 @@
+package game.render.loader;
+
+import world.block.BlockRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * Lecture et décodage des ressources en avance, sur des threads de chargement.
+ * <p>
+ * Pendant l'écran de démarrage, {@link #preloadWorldAssets} lit les sources du shader du monde et
+ * décode les textures de tous les blocs sur l'exécuteur de {@link systeme.startup.Startup}, au
+ * plus un thread par cœur. Les images et sources attendent ensuite ici : {@link ResourceManager}
+ * et {@link BlockTextureArray} les prennent au lieu de les relire, et n'ont plus qu'à les envoyer
+ * à OpenGL sur le thread du contexte. Une ressource non préchargée, ou dont le préchargement a
+ * échoué, est simplement chargée comme avant.
+ */
+public final class AssetPreloader {
+    private static final Map<String, CompletableFuture<Shader.Sources>> shaders = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<DecodedImage>> images = new ConcurrentHashMap<>();
+
+    private record Job(String name, CompletableFuture<DecodedImage> result) {}
+
+    private AssetPreloader() {
+    }
+
+    // Shader du monde et texture de chaque bloc enregistré
+    public static void preloadWorldAssets(Executor executor) {
+        preloadShader("world", executor);
+
+        Set<String> names = new LinkedHashSet<>();
+        for (int id = 0; id < BlockRegistry.size(); id++) {
+            String name = BlockRegistry.getTextureName(id);
+            if (name != null) names.add(name);
+        }
+        preloadImages(names, executor);
+    }
+
+    public static void preloadShader(String name, Executor executor) {
+        shaders.computeIfAbsent(name, key -> CompletableFuture.supplyAsync(() -> {
+            try {
+                return Shader.readSources(key);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor));
+    }
+
+    /**
+     * Décode les images sur {@code executor}. Les noms vont dans une file partagée par au plus
+     * un thread par cœur, pour ne pas lancer un thread par image sur un exécuteur sans limite.
+     */
+    public static void preloadImages(Iterable<String> names, Executor executor) {
+        Queue<Job> pending = new ConcurrentLinkedQueue<>();
+        for (String name : names) {
+            CompletableFuture<DecodedImage> result = new CompletableFuture<>();
+            if (images.putIfAbsent(name, result) == null) pending.add(new Job(name, result));
+        }
+
+        int workers = Math.min(pending.size(), Runtime.getRuntime().availableProcessors());
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> decodeAll(pending));
+        }
+    }
+
+    private static void decodeAll(Queue<Job> pending) {
+        Job job;
+        while ((job = pending.poll()) != null) {
+            try {
+                job.result().complete(DecodedImage.load(job.name()));
+            } catch (Throwable e) {
+                job.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Sources préchargées du shader, en attendant la fin de la lecture si besoin.
+     * null si le shader n'a pas été préchargé ou si la lecture a échoué.
+     */
+    static Shader.Sources takeShader(String name) {
+        CompletableFuture<Shader.Sources> result = shaders.remove(name);
+        if (result == null) return null;
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            System.err.println("Préchargement du shader '" + name + "' échoué : " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Image préchargée, à libérer par l'appelant. null si elle n'a pas été préchargée ou si le
+     * décodage a échoué, vide si elle n'existe ni dans le pack ni dans les ressources.
+     */
+    static Optional<DecodedImage> takeImage(String name) {
+        CompletableFuture<DecodedImage> result = images.remove(name);
+        if (result == null) return null;
+        try {
+            return Optional.ofNullable(result.join());
+        } catch (CompletionException e) {
+            System.err.println("Préchargement de la texture '" + name + "' échoué : " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Oublie tout ce qui n'a pas été pris, en libérant les images. À appeler une fois le monde prêt.
+     */
+    public static void discard() {
+        shaders.clear();
+        for (String name : images.keySet()) {
+            Optional<DecodedImage> image = takeImage(name);
+            if (image != null) image.ifPresent(DecodedImage::free);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package game.render.loader;
+
+import org.lwjgl.stb.STBImageResize;
+import org.lwjgl.system.MemoryUtil;
+import world.block.BlockRegistry;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL12.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+
+/**
+ * Toutes les textures de blocs dans un seul tableau de textures (GL_TEXTURE_2D_ARRAY), une couche
+ * par texture : le rendu du monde ne change plus jamais de texture.
+ * <p>
+ * Chaque texture est cherchée dans le pack de textures actif, puis dans les ressources embarquées
+ * ({@code /textures}), à moins d'avoir déjà été décodée par {@link AssetPreloader}. Les blocs qui partagent une texture partagent sa couche ; la couche 0 est
+ * un blanc uni pour l'air et les textures introuvables. Toutes les couches ont la même taille,
+ * celle de la plus grande image (au plus {@link #MAX_TILE_SIZE}), les autres sont redimensionnées.
+ * <p>
+ * Les mipmaps sont calculés couche par couche : une tuile ne déborde jamais sur sa voisine, et la
+ * répétition (GL_REPEAT) des quads fusionnés reste possible, ce qu'un atlas ne permet pas.
+ * <p>
+ * La couche de chaque identifiant de bloc ({@link #getBlockLayers()}) est envoyée au shader dans
+ * une texture tampon (GL_TEXTURE_BUFFER) dimensionnée d'après le registre : un tableau d'uniforms
+ * serait limité à quelques centaines d'entrées.
+ */
+public class BlockTextureArray {
+    public static final int MAX_TILE_SIZE = 256;
+    private static final int MIN_TILE_SIZE = 16;
+
+    private final int textureID;
+    // Table identifiant de bloc -> couche : tampon et texture tampon qui le lit
+    private final int layerTableBuffer;
+    private final int layerTableID;
+    private final int[] blockLayers;
+    private final int layerCount;
+    private final int tileSize;
+
+    public BlockTextureArray() {
+        // Couche de chaque nom de texture, dans l'ordre du registre ; null : image introuvable
+        Map<String, Integer> layerByName = new HashMap<>();
+        List<DecodedImage> images = new ArrayList<>();
+        images.add(null); // couche 0 : blanc
+
+        blockLayers = new int[BlockRegistry.size()];
+        for (int id = 0; id < blockLayers.length; id++) {
+            String name = BlockRegistry.getTextureName(id);
+            if (name == null) continue;
+
+            Integer layer = layerByName.get(name);
+            if (layer == null) {
+                DecodedImage image = loadImage(name);
+                layer = image == null ? 0 : images.size();
+                if (image != null) images.add(image);
+                layerByName.put(name, layer);
+            }
+            blockLayers[id] = layer;
+        }
+
+        int size = MIN_TILE_SIZE;
+        for (DecodedImage image : images) {
+            if (image != null) size = Math.max(size, Math.max(image.width(), image.height()));
+        }
+        tileSize = Math.min(size, MAX_TILE_SIZE);
+        layerCount = images.size();
+
+        textureID = glGenTextures();
+        glBindTexture(GL_TEXTURE_2D_ARRAY, textureID);
+        glPixelStorei(GL_UNPACK_ALIGNMENT, 1);
+        glTexImage3D(GL_TEXTURE_2D_ARRAY, 0, GL_RGBA8, tileSize, tileSize, layerCount, 0,
+                GL_RGBA, GL_UNSIGNED_BYTE, (ByteBuffer) null);
+
+        ByteBuffer tile = MemoryUtil.memAlloc(tileSize * tileSize * 4);
+        try {
+            for (int layer = 0; layer < layerCount; layer++) {
+                fillTile(images.get(layer), tile);
+                glTexSubImage3D(GL_TEXTURE_2D_ARRAY, 0, 0, 0, layer, tileSize, tileSize, 1,
+                        GL_RGBA, GL_UNSIGNED_BYTE, tile);
+            }
+        } finally {
+            MemoryUtil.memFree(tile);
+            for (DecodedImage image : images) {
+                if (image != null) image.free();
+            }
+        }
+
+        glGenerateMipmap(GL_TEXTURE_2D_ARRAY);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MIN_FILTER, GL_NEAREST_MIPMAP_LINEAR);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_S, GL_REPEAT);
+        glTexParameteri(GL_TEXTURE_2D_ARRAY, GL_TEXTURE_WRAP_T, GL_REPEAT);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, 0);
+
+        int maxEntries = glGetInteger(GL_MAX_TEXTURE_BUFFER_SIZE);
+        if (blockLayers.length > maxEntries) {
+            System.err.println("Trop de blocs pour la table des couches (" + blockLayers.length + " > "
+                    + maxEntries + ") : les derniers identifiants auront la couche 0");
+        }
+        layerTableBuffer = glGenBuffers();
+        glBindBuffer(GL_TEXTURE_BUFFER, layerTableBuffer);
+        glBufferData(GL_TEXTURE_BUFFER, blockLayers, GL_STATIC_DRAW);
+        glBindBuffer(GL_TEXTURE_BUFFER, 0);
+
+        layerTableID = glGenTextures();
+        glBindTexture(GL_TEXTURE_BUFFER, layerTableID);
+        glTexBuffer(GL_TEXTURE_BUFFER, GL_R32I, layerTableBuffer);
+        glBindTexture(GL_TEXTURE_BUFFER, 0);
+    }
+
+    // Recopie l'image dans la tuile, redimensionnée si besoin ; blanc si pas d'image
+    private void fillTile(DecodedImage image, ByteBuffer tile) {
+        tile.clear();
+        if (image == null) {
+            while (tile.hasRemaining()) tile.put((byte) 255);
+            tile.flip();
+            return;
+        }
+
+        if (image.width() == tileSize && image.height() == tileSize) {
+            MemoryUtil.memCopy(image.pixels(), tile);
+        } else {
+            STBImageResize.stbir_resize_uint8_linear(image.pixels(), image.width(), image.height(), 0,
+                    tile, tileSize, tileSize, 0, STBImageResize.STBIR_RGBA);
+        }
+        tile.limit(tileSize * tileSize * 4);
+    }
+
+    // Image décodée pendant le démarrage si possible (voir AssetPreloader), sinon décodée ici
+    private static DecodedImage loadImage(String name) {
+        Optional<DecodedImage> preloaded = AssetPreloader.takeImage(name);
+        DecodedImage image = null;
+        if (preloaded != null) {
+            image = preloaded.orElse(null);
+        } else {
+            try {
+                image = DecodedImage.load(name);
+            } catch (IOException e) {
+                System.err.println("Texture '" + name + "' illisible : " + e.getMessage());
+            }
+        }
+
+        if (image == null) System.err.println("Texture '" + name + "' introuvable, remplacée par du blanc");
+        return image;
+    }
+
+    public int getTextureID() {
+        return textureID;
+    }
+
+    // Texture tampon (isamplerBuffer) donnant la couche de chaque identifiant de bloc
+    public int getLayerTableID() {
+        return layerTableID;
+    }
+
+    // Couche de chaque identifiant de bloc
+    public int[] getBlockLayers() {
+        return blockLayers;
+    }
+
+    public int getLayerCount() {
+        return layerCount;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public void cleanUp() {
+        glDeleteTextures(textureID);
+        glDeleteTextures(layerTableID);
+        glDeleteBuffers(layerTableBuffer);
+    }
+}
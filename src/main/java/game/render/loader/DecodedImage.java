@@ -0,0 +1,88 @@
+package game.render.loader;
+
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Image décodée en RGBA par STBImage, prête à être envoyée à OpenGL.
+ * <p>
+ * Le décodage n'appelle pas OpenGL : il peut tourner sur un thread de chargement (voir
+ * {@link AssetPreloader}), seul l'envoi reste sur le thread du contexte. Les pixels sont en
+ * mémoire native et doivent être rendus avec {@link #free()}.
+ */
+public record DecodedImage(ByteBuffer pixels, int width, int height) {
+    private static final String[] EXTENSIONS = {".png", ".jpg", ".jpeg"};
+
+    /**
+     * Cherche l'image {@code name} dans le pack de textures actif, puis dans les ressources
+     * embarquées ({@code /textures}). Renvoie null si elle n'existe nulle part.
+     *
+     * @throws IOException si le fichier du pack existe mais ne peut pas être décodé
+     */
+    public static DecodedImage load(String name) throws IOException {
+        Optional<Path> pack = ResourceManager.getTexturePack();
+        if (pack.isPresent()) {
+            for (String ext : EXTENSIONS) {
+                Path path = pack.get().resolve(name + ext);
+                if (Files.exists(path)) return decodeFile(path);
+            }
+        }
+
+        for (String ext : EXTENSIONS) {
+            try (InputStream inputStream = DecodedImage.class.getResourceAsStream("/textures/" + name + ext)) {
+                if (inputStream != null) return decode(inputStream.readAllBytes());
+            } catch (IOException e) {
+                // Continue avec l'extension suivante
+                System.err.println("Erreur lors du chargement de " + name + ext + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    // STBImage charge directement depuis le fichier
+    private static DecodedImage decodeFile(Path path) throws IOException {
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer comp = stack.mallocInt(1);
+
+            ByteBuffer pixels = STBImage.stbi_load(path.toString(), w, h, comp, 4);
+            if (pixels == null) {
+                throw new IOException("Could not load file " + path + " " + STBImage.stbi_failure_reason());
+            }
+            return new DecodedImage(pixels, w.get(0), h.get(0));
+        }
+    }
+
+    // Pour les ressources embarquées : l'image brute est copiée dans le heap natif le temps du décodage
+    public static DecodedImage decode(byte[] data) throws IOException {
+        ByteBuffer encoded = MemoryUtil.memAlloc(data.length);
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            encoded.put(data).flip();
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer comp = stack.mallocInt(1);
+
+            ByteBuffer pixels = STBImage.stbi_load_from_memory(encoded, w, h, comp, 4);
+            if (pixels == null) {
+                throw new IOException("Could not load from memory: " + STBImage.stbi_failure_reason());
+            }
+            return new DecodedImage(pixels, w.get(0), h.get(0));
+        } finally {
+            MemoryUtil.memFree(encoded);
+        }
+    }
+
+    public void free() {
+        STBImage.stbi_image_free(pixels);
+    }
+}
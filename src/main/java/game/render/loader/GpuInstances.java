@@ -0,0 +1,62 @@
+package game.render.loader;
+
+import world.mesh.InstanceBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.*;
+import static org.lwjgl.opengl.GL33.*;
+
+/**
+ * Instances d'un chunk côté GPU : un VAO qui combine le cube partagé ({@link InstancedCube}) et le
+ * VBO d'instances du chunk (attribut 5, un int par bloc au format de {@link InstanceBuffer}).
+ * Tous les blocs du chunk sont dessinés par un seul glDrawElementsInstanced.
+ */
+public class GpuInstances {
+    private final InstancedCube cube;
+    private final int VAO, instanceVBO;
+    private int instanceCount;
+
+    public GpuInstances(InstancedCube cube) {
+        this.cube = cube;
+        VAO = glGenVertexArrays();
+        instanceVBO = glGenBuffers();
+
+        glBindVertexArray(VAO);
+        glBindBuffer(GL_ARRAY_BUFFER, cube.getVBO());
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, cube.getEBO());
+        GpuMesh.setupVertexAttributes();
+
+        // Attribut 5 : Instance (position dans le chunk et couche), une valeur par cube
+        glBindBuffer(GL_ARRAY_BUFFER, instanceVBO);
+        glVertexAttribIPointer(5, 1, GL_UNSIGNED_INT, InstanceBuffer.INSTANCE_SIZE, 0);
+        glVertexAttribDivisor(5, 1);
+        glEnableVertexAttribArray(5);
+
+        glBindVertexArray(0);
+    }
+
+    public void upload(InstanceBuffer instances) {
+        glBindBuffer(GL_ARRAY_BUFFER, instanceVBO);
+        glBufferData(GL_ARRAY_BUFFER, instances.getInstances(), GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+        instanceCount = instances.getCount();
+    }
+
+    public void draw() {
+        if (instanceCount == 0) return;
+
+        glBindVertexArray(VAO);
+        glDrawElementsInstanced(GL_TRIANGLES, cube.getIndexCount(), GL_UNSIGNED_INT, 0, instanceCount);
+    }
+
+    public int getInstanceCount() {
+        return instanceCount;
+    }
+
+    public void cleanup() {
+        glDeleteVertexArrays(VAO);
+        glDeleteBuffers(instanceVBO);
+    }
+}
@@ -0,0 +1,101 @@
+package game.render.loader;
+
+import world.mesh.MeshBuffer;
+
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL15.*;
+import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL30.*;
+
+/**
+ * Maillage d'un chunk côté GPU : un VAO, un VBO et un EBO, dessinés en un seul appel.
+ * Le format des sommets est celui de {@link MeshBuffer}.
+ */
+public class GpuMesh {
+    private final int VAO, VBO, EBO;
+    private int indexCount;
+    // Niveau de détail du dernier maillage envoyé
+    private int lod;
+
+    public GpuMesh() {
+        VAO = glGenVertexArrays();
+        VBO = glGenBuffers();
+        EBO = glGenBuffers();
+
+        glBindVertexArray(VAO);
+        glBindBuffer(GL_ARRAY_BUFFER, VBO);
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, EBO);
+
+        setupVertexAttributes();
+
+        glBindVertexArray(0);
+    }
+
+    /**
+     * Décrit le format de sommets de {@link MeshBuffer} (attributs 0 à 4 et 6) pour le VAO et le VBO liés.
+     */
+    static void setupVertexAttributes() {
+        // Attribut 0 : Position (x, y, z) locale au chunk
+        glVertexAttribPointer(0, 3, GL_UNSIGNED_BYTE, false, MeshBuffer.VERTEX_SIZE, MeshBuffer.POSITION_OFFSET);
+        glEnableVertexAttribArray(0);
+
+        // Attribut 1 : Coordonnées texture (u, v)
+        glVertexAttribPointer(1, 2, GL_UNSIGNED_BYTE, false, MeshBuffer.VERTEX_SIZE, MeshBuffer.UV_OFFSET);
+        glEnableVertexAttribArray(1);
+
+        // Attribut 2 : Face (entier, ordre de world.block.Face)
+        glVertexAttribIPointer(2, 1, GL_UNSIGNED_BYTE, MeshBuffer.VERTEX_SIZE, MeshBuffer.FACE_OFFSET);
+        glEnableVertexAttribArray(2);
+
+        // Attribut 3 : Lumière (ciel << 4 | blocs)
+        glVertexAttribIPointer(3, 1, GL_UNSIGNED_BYTE, MeshBuffer.VERTEX_SIZE, MeshBuffer.LIGHT_OFFSET);
+        glEnableVertexAttribArray(3);
+
+        // Attribut 4 : Occlusion ambiante du sommet (0 à 3)
+        glVertexAttribIPointer(4, 1, GL_UNSIGNED_BYTE, MeshBuffer.VERTEX_SIZE, MeshBuffer.OCCLUSION_OFFSET);
+        glEnableVertexAttribArray(4);
+
+        // Attribut 6 : Identifiant du bloc, qui choisit sa couche de texture (le 5 est pris par les instances)
+        glVertexAttribIPointer(6, 1, GL_UNSIGNED_SHORT, MeshBuffer.VERTEX_SIZE, MeshBuffer.BLOCK_OFFSET);
+        glEnableVertexAttribArray(6);
+    }
+
+    public void upload(MeshBuffer mesh, int lod) {
+        upload(mesh);
+        this.lod = lod;
+    }
+
+    public void upload(MeshBuffer mesh) {
+        glBindVertexArray(VAO);
+
+        glBindBuffer(GL_ARRAY_BUFFER, VBO);
+        glBufferData(GL_ARRAY_BUFFER, mesh.getVertices(), GL_STATIC_DRAW);
+
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, EBO);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, mesh.getIndices(), GL_STATIC_DRAW);
+
+        glBindVertexArray(0);
+        indexCount = mesh.getIndexCount();
+    }
+
+    public void draw() {
+        if (indexCount == 0) return;
+
+        glBindVertexArray(VAO);
+        glDrawElements(GL_TRIANGLES, indexCount, GL_UNSIGNED_INT, 0);
+    }
+
+    public int getLod() {
+        return lod;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public void cleanup() {
+        glDeleteVertexArrays(VAO);
+        glDeleteBuffers(VBO);
+        glDeleteBuffers(EBO);
+    }
+}
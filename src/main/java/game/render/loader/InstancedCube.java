@@ -0,0 +1,48 @@
+package game.render.loader;
+
+import world.mesh.ChunkInstanceBuilder;
+import world.mesh.MeshBuffer;
+
+import static org.lwjgl.opengl.GL15.*;
+
+/**
+ * Cube unité partagé par tous les chunks du rendu instancié : un VBO et un EBO au format de
+ * {@link MeshBuffer}, envoyés une seule fois. Chaque {@link GpuInstances} le référence dans son VAO.
+ */
+public class InstancedCube {
+    private final int VBO, EBO;
+    private final int indexCount;
+
+    public InstancedCube() {
+        MeshBuffer cube = new MeshBuffer(6);
+        ChunkInstanceBuilder.buildCube(cube);
+
+        VBO = glGenBuffers();
+        glBindBuffer(GL_ARRAY_BUFFER, VBO);
+        glBufferData(GL_ARRAY_BUFFER, cube.getVertices(), GL_STATIC_DRAW);
+
+        EBO = glGenBuffers();
+        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, EBO);
+        glBufferData(GL_ELEMENT_ARRAY_BUFFER, cube.getIndices(), GL_STATIC_DRAW);
+        glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+        indexCount = cube.getIndexCount();
+    }
+
+    int getVBO() {
+        return VBO;
+    }
+
+    int getEBO() {
+        return EBO;
+    }
+
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    public void cleanup() {
+        glDeleteBuffers(VBO);
+        glDeleteBuffers(EBO);
+    }
+}
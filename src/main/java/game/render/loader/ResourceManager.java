@@ -0,0 +1,123 @@
+package game.render.loader;
+
+import systeme.exception.ShaderCompilationException;
+import systeme.filesystem.GameDirectoryManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Point d'accès unique aux ressources graphiques.
+ * <p>
+ * Les dossiers du pack de shaders et du pack de textures actifs (le premier de chaque dossier de
+ * packs) ne sont cherchés qu'une fois, puis gardés. Les shaders et textures sont partagés par nom
+ * avec un compteur de références : {@code acquire} charge au premier appel et renvoie ensuite la
+ * même instance, {@code release} libère les objets OpenGL quand le dernier utilisateur rend la
+ * ressource. Ce que {@link AssetPreloader} a déjà lu ou décodé est repris tel quel. acquire et
+ * release sont à appeler depuis le thread du contexte OpenGL.
+ */
+public final class ResourceManager {
+    private static final GameDirectoryManager DIRECTORIES = new GameDirectoryManager();
+
+    // null tant que le dossier n'a pas été cherché
+    private static Optional<Path> shaderpack;
+    private static Optional<Path> texturePack;
+
+    private static final Map<String, Entry<Shader>> shaders = new HashMap<>();
+    private static final Map<String, Entry<Texture>> textures = new HashMap<>();
+
+    private static final class Entry<T> {
+        final T resource;
+        int references;
+
+        Entry(T resource) {
+            this.resource = resource;
+        }
+    }
+
+    private ResourceManager() {
+    }
+
+    // Dossier du pack de shaders actif, s'il y en a un
+    public static synchronized Optional<Path> getShaderpack() {
+        if (shaderpack == null) shaderpack = findFirstPack(DIRECTORIES.getShaderpacksDirectory().toPath());
+        return shaderpack;
+    }
+
+    // Dossier du pack de textures actif, s'il y en a un
+    public static synchronized Optional<Path> getTexturePack() {
+        if (texturePack == null) texturePack = findFirstPack(DIRECTORIES.getTexturePacksDirectory().toPath());
+        return texturePack;
+    }
+
+    /**
+     * Oublie les dossiers de packs trouvés : ils seront cherchés de nouveau au prochain chargement.
+     * Les ressources déjà chargées ne changent pas.
+     */
+    public static synchronized void refreshPacks() {
+        shaderpack = null;
+        texturePack = null;
+    }
+
+    private static Optional<Path> findFirstPack(Path packsDirectory) {
+        try (var dirs = Files.list(packsDirectory)) {
+            return dirs.filter(Files::isDirectory).findFirst();
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static Shader acquireShader(String name) throws ShaderCompilationException {
+        Entry<Shader> entry = shaders.get(name);
+        if (entry == null) {
+            entry = new Entry<>(new Shader(name, AssetPreloader.takeShader(name)));
+            shaders.put(name, entry);
+        }
+        entry.references++;
+        return entry.resource;
+    }
+
+    public static void releaseShader(String name) {
+        Entry<Shader> entry = shaders.get(name);
+        if (entry == null) {
+            System.err.println("Shader '" + name + "' libéré sans avoir été chargé");
+            return;
+        }
+        if (--entry.references == 0) {
+            shaders.remove(name);
+            entry.resource.cleanUp();
+        }
+    }
+
+    public static Texture acquireTexture(String name) throws Exception {
+        Entry<Texture> entry = textures.get(name);
+        if (entry == null) {
+            Optional<DecodedImage> preloaded = AssetPreloader.takeImage(name);
+            entry = new Entry<>(preloaded != null ? new Texture(preloaded.orElse(null)) : new Texture(name));
+            textures.put(name, entry);
+        }
+        entry.references++;
+        return entry.resource;
+    }
+
+    public static void releaseTexture(String name) {
+        Entry<Texture> entry = textures.get(name);
+        if (entry == null) {
+            System.err.println("Texture '" + name + "' libérée sans avoir été chargée");
+            return;
+        }
+        if (--entry.references == 0) {
+            textures.remove(name);
+            entry.resource.cleanUp();
+        }
+    }
+
+    // Nombre de shaders et de textures actuellement chargés
+    public static int getLoadedCount() {
+        return shaders.size() + textures.size();
+    }
+}
@@ -1,7 +1,6 @@
 package game.render.loader;
 
 import systeme.exception.ShaderCompilationException;
-import systeme.filesystem.GameDirectoryManager;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -16,17 +15,22 @@ public class Shader {
     public int programID;
     private int vertexShaderID;
     private int fragmentShaderID;
-    private final GameDirectoryManager gameDirectoryManager;
     private UniformManager uniforms;
     private String sources;
 
+    // Sources d'un shader, lues sans contexte OpenGL (voir AssetPreloader)
+    public record Sources(String vertex, String fragment) {}
+
     public Shader(String shaderName) throws ShaderCompilationException {
-        gameDirectoryManager = new GameDirectoryManager();
+        this(shaderName, null);
+    }
 
+    // preloaded : sources déjà lues par un thread de chargement, null pour les lire ici
+    Shader(String shaderName, Sources preloaded) throws ShaderCompilationException {
         try {
-            if (!tryLoadFromShaderpack(shaderName)) {
-                loadEmbeddedShader(shaderName);
-            }
+            Sources loaded = preloaded != null ? preloaded : readSources(shaderName);
+            sources = loaded.vertex() + "\n" + loaded.fragment();
+            compile(loaded.vertex(), loaded.fragment());
 
         } catch (NullPointerException e) {
             System.err.println("Shader '" + shaderName + "' introuvable. " + e.getMessage());
@@ -35,12 +39,6 @@ public class Shader {
         } catch (IOException e) {
             System.err.println("Erreur de fichier shader '" + shaderName + "': " + e.getMessage());
             System.out.println("Chargement du shader par défaut...");
-            loadDefaultShader();
-        } catch (ShaderCompilationException e) {
-            System.err.println("=== SHADER ERROR ===");
-            System.err.println("Type: " + e.getShaderType());
-            System.err.println("Error: " + e.getMessage());
-
             loadDefaultShader();
         } catch (RuntimeException e) {
             System.err.println("Erreur OpenGL shader '" + shaderName + "': " + e.getMessage());
@@ -52,57 +50,50 @@ public class Shader {
         }
     }
 
-    private Optional<String> getFirstShaderpackName() {
-        try(var dirs = Files.list(gameDirectoryManager.getShaderpacksDirectory().toPath())) {
-            return dirs
-                    .filter(Files::isDirectory)
-                    .map(path -> path.getFileName().toString())
-                    .findFirst();
-        }catch (IOException e) {
-            return Optional.empty();
-        }
+    /**
+     * Lit les sources du shader, depuis le pack de shaders actif sinon depuis les ressources
+     * embarquées. N'appelle pas OpenGL : utilisable depuis n'importe quel thread.
+     */
+    public static Sources readSources(String shaderName) throws IOException {
+        Sources fromPack = readFromShaderpack(shaderName);
+        return fromPack != null ? fromPack : readEmbeddedShader(shaderName);
     }
 
-    private void loadEmbeddedShader(String shaderName) throws IOException, ShaderCompilationException {
+    private static Sources readEmbeddedShader(String shaderName) throws IOException {
         String vertexSource;
         String fragmentSource;
 
         // Try-with-resources pour auto-close
-        try (InputStream vertexInputStream = getClass().getResourceAsStream("/shaders/" + shaderName + ".vs.glsl")) {
+        try (InputStream vertexInputStream = Shader.class.getResourceAsStream("/shaders/" + shaderName + ".vs.glsl")) {
             if (vertexInputStream == null) {
                 throw new IOException("Vertex shader file not found: " + shaderName + ".vs.glsl");
             }
             vertexSource = new String(vertexInputStream.readAllBytes(), StandardCharsets.UTF_8);
         }
 
-        try (InputStream fragmentInputStream = getClass().getResourceAsStream("/shaders/" + shaderName + ".fs.glsl")) {
+        try (InputStream fragmentInputStream = Shader.class.getResourceAsStream("/shaders/" + shaderName + ".fs.glsl")) {
             if (fragmentInputStream == null) {
                 throw new IOException("Fragment shader file not found: " + shaderName + ".fs.glsl");
             }
             fragmentSource = new String(fragmentInputStream.readAllBytes(), StandardCharsets.UTF_8);
         }
-        sources = vertexSource + "\n" + fragmentSource;
-        compile(vertexSource, fragmentSource); // Peut throw ShaderCompilationException
+        return new Sources(vertexSource, fragmentSource);
     }
 
-    private boolean tryLoadFromShaderpack(String shaderName) throws IOException, ShaderCompilationException {
-        Optional<String> packOpt = getFirstShaderpackName();
+    // null si aucun pack ne fournit ce shader
+    private static Sources readFromShaderpack(String shaderName) throws IOException {
+        // Dossier du pack résolu une seule fois par ResourceManager
+        Optional<Path> packOpt = ResourceManager.getShaderpack();
 
-        if (packOpt.isEmpty()) return false;
-        String packName = packOpt.get(); // Aucun pack trouvé
+        if (packOpt.isEmpty()) return null; // Aucun pack trouvé
 
-        Path externalVertexPath = gameDirectoryManager.getShaderpacksDirectory().toPath().resolve(packName + '/' + shaderName + ".vs.glsl");
-        Path externalFragmentPath = gameDirectoryManager.getShaderpacksDirectory().toPath().resolve(packName + '/' + shaderName + ".fs.glsl");
+        Path externalVertexPath = packOpt.get().resolve(shaderName + ".vs.glsl");
+        Path externalFragmentPath = packOpt.get().resolve(shaderName + ".fs.glsl");
 
         if (Files.exists(externalFragmentPath) && Files.exists(externalVertexPath)) {
-            String vertexSource = Files.readString(externalVertexPath);
-            String fragmentSource = Files.readString(externalFragmentPath);
-
-            sources = vertexSource + "\n" + fragmentSource;
-            compile(vertexSource, fragmentSource);
-            return true;
+            return new Sources(Files.readString(externalVertexPath), Files.readString(externalFragmentPath));
         }
-        return false;
+        return null;
     }
 
     public void compile(String vertexSource, String fragmentSource) {
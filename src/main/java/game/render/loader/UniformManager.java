@@ -14,6 +14,8 @@ import static org.lwjgl.opengl.GL20.*;
 public class UniformManager {
     private final Map<String, Integer> uniforms = new HashMap<>();
     private final int programID;
+    // Réutilisé pour chaque envoi de matrice : pas d'allocation par appel
+    private final FloatBuffer matrixBuffer = BufferUtils.createFloatBuffer(16);
 
     public UniformManager(int programID) {
         this.programID = programID;
@@ -86,9 +88,8 @@ public class UniformManager {
     public void setMatrix4f(String name, Matrix4f matrix) {
         Integer location = uniforms.get(name);
         if (location != null) {
-            FloatBuffer buffer = BufferUtils.createFloatBuffer(16);
-            matrix.get(buffer);
-            glUniformMatrix4fv(location, false, buffer);
+            matrix.get(matrixBuffer);
+            glUniformMatrix4fv(location, false, matrixBuffer);
         }
     }
 }
\ No newline at end of file
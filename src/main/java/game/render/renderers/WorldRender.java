@@ -1,158 +1,351 @@
 package game.render.renderers;
 
 import game.render.Camera;
+import game.render.loader.BlockTextureArray;
+import game.render.loader.GpuInstances;
+import game.render.loader.GpuMesh;
+import game.render.loader.InstancedCube;
+import game.render.loader.ResourceManager;
 import game.render.loader.Shader;
-import game.render.loader.Texture;
 import org.joml.Matrix4f;
 import systeme.exception.ShaderCompilationException;
-import world.chunk.LocalBlockCoord;
+import systeme.filesystem.GameDirectoryManager;
+import world.ChunkListener;
+import world.ChunkStreamingService;
+import world.VoxelRaycaster;
 import world.WorldManager;
+import world.chunk.Chunk;
+import world.mesh.ChunkInstanceBuilder;
+import world.mesh.ChunkMeshScheduler;
+import world.mesh.ChunkMesher;
+import world.mesh.InstanceBuffer;
+import world.visibility.ChunkVisibility;
+import world.storage.AutosaveService;
+import world.storage.BackupService;
+import world.storage.EditJournal;
+import world.storage.RegionStorage;
+import world.storage.WorldBackup;
+import world.util.LongObjectMap;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
 
-import static org.lwjgl.opengl.GL15.*;
-import static org.lwjgl.opengl.GL20.*;
+import static org.lwjgl.opengl.GL11.*;
+import static org.lwjgl.opengl.GL13.*;
 import static org.lwjgl.opengl.GL30.*;
+import static org.lwjgl.opengl.GL31.GL_TEXTURE_BUFFER;
+
+public class WorldRender implements GameRenderable, ChunkListener {
+    public enum RenderMode {
+        // Un maillage par chunk, construit en arrière-plan
+        MESHED,
+        // Un cube unité dessiné une fois par bloc visible, un appel par chunk
+        INSTANCED
+    }
+
+    private static final RenderMode RENDER_MODE = RenderMode.MESHED;
+    // CULLED ou GREEDY : permet de comparer les deux maillages
+    private static final ChunkMesher.Mode MESHING_MODE = ChunkMesher.Mode.GREEDY;
+    // Envois GPU maximum par image, pour garder un temps d'image stable pendant les chargements
+    private static final int MAX_UPLOADS_PER_FRAME = 4;
+    // Tampons d'instances reconstruits au plus par image (rendu instancié, sur le thread de rendu)
+    private static final int MAX_INSTANCE_BUILDS_PER_FRAME = 8;
+    // Rayon de chargement en chunks, et marge avant déchargement
+    private static final int VIEW_DISTANCE = 8;
+    private static final int UNLOAD_HYSTERESIS = 2;
+    // Au-delà de cette distance horizontale (en chunks) de la caméra, un niveau de détail de moins
+    private static final int LOD_DISTANCE = 6;
+    // Dossier du monde sous saves/worlds
+    private static final String WORLD_NAME = "world";
+    // Une sauvegarde automatique par minute environ (un tick par image)
+    private static final int AUTOSAVE_INTERVAL_TICKS = 60 * 60;
+    // Sauvegarde complète toutes les 30 minutes environ, 10 gardées
+    private static final int BACKUP_INTERVAL_TICKS = 60 * 60 * 30;
+    private static final int BACKUPS_KEPT = 10;
 
-public class WorldRender implements GameRenderable {
-    private int VAO, VBO, EBO;
     private final Shader shader;
-    private final Texture texture;
+    private final BlockTextureArray textures;
     private final WorldManager worldManager;
 
-    // Vertices d'un cube 3D (position + coordonnées de texture)
-    private final float[][] cubeVertices = {
-            {
-            // Face du DESSUS (Y=1)  vue d'en haut
-            0.0f, 1.0f, 0.0f,         0.0f, 1.0f,  // coin arrière-gauche
-            1.0f, 1.0f, 0.0f,         1.0f, 1.0f,  // coin arrière-droite
-            1.0f, 1.0f, 1.0f,         1.0f, 0.0f,  // coin avant-droite
-            0.0f, 1.0f, 1.0f,         0.0f, 0.0f,  // coin avant-gauche
-            },
-            {
-            // Face DROITE (X=1)      côté droit du cube
-            1.0f, 0.0f, 0.0f,         0.0f, 0.0f,  // arrière bas
-            1.0f, 0.0f, 1.0f,         1.0f, 0.0f,  // avant-bas
-            1.0f, 1.0f, 1.0f,         1.0f, 1.0f,  // avant-haut
-            1.0f, 1.0f, 0.0f,         0.0f, 1.0f,  // arrière-haut
-            },
-            {
-            // Face ARRIÈRE (Z=0) - face du fond
-            0.0f, 0.0f, 0.0f,         1.0f, 0.0f,  // gauche bas
-            0.0f, 1.0f, 0.0f,         1.0f, 1.0f,  // gauche haut
-            1.0f, 1.0f, 0.0f,         0.0f, 1.0f,  // droite haut
-            1.0f, 0.0f, 0.0f,         0.0f, 0.0f   // droite basse
-            }
-    };
-
-    // Indices pour les 3 faces visibles en isométrique
-    private final int[] indices = {
-            // Face du dessus
-            0, 2, 1,   0, 3, 2,
-            // Face droite
-            4, 6, 5,   4, 7, 6,
-            // Face arrière
-            8, 10, 9,  8, 11, 10
-    };
+    // Un maillage GPU par chunk, construit en arrière-plan par le scheduler
+    private final LongObjectMap<GpuMesh> meshes = new LongObjectMap<>();
+    private final ChunkMeshScheduler meshScheduler;
+    // Rendu instancié : un tampon d'instances par chunk autour du cube partagé
+    private final LongObjectMap<GpuInstances> instances = new LongObjectMap<>();
+    private final ArrayDeque<Chunk> instanceQueue = new ArrayDeque<>();
+    private final ChunkInstanceBuilder instanceBuilder = new ChunkInstanceBuilder();
+    private final InstanceBuffer instanceBuffer = new InstanceBuffer();
+    private InstancedCube cube;
+    private final ChunkStreamingService streamingService;
+    private final Matrix4f modelMatrix = new Matrix4f();
+    private final ChunkVisibility visibility = new ChunkVisibility();
+    // Bloc sous la souris, recalculé à chaque image
+    private final VoxelRaycaster raycaster = new VoxelRaycaster();
+    private final VoxelRaycaster.Hit hovered = new VoxelRaycaster.Hit();
+    private boolean hasHover;
+    // Niveau de détail imposé par le zoom courant
+    private int zoomLod;
+    // null si la sauvegarde n'a pas pu être ouverte
+    private AutosaveService autosave;
+    // Sauvegardes périodiques, null si la sauvegarde n'a pas pu être ouverte
+    private BackupService backups;
 
     public WorldRender() {
         try {
-            shader = new Shader("world");
+            shader = ResourceManager.acquireShader("world");
         } catch (ShaderCompilationException e) {
             throw new RuntimeException(e);
         }
+        textures = new BlockTextureArray();
+        worldManager = new WorldManager();
+        openWorldStorage();
+        meshScheduler = new ChunkMeshScheduler(worldManager, MESHING_MODE);
+        streamingService = new ChunkStreamingService(worldManager, VIEW_DISTANCE, UNLOAD_HYSTERESIS);
+    }
+
+    // Sans dossier de sauvegarde utilisable, le monde tourne quand même, sans être enregistré
+    private void openWorldStorage() {
+        Path worldDirectory = new GameDirectoryManager().getWorldsDirectory().toPath().resolve(WORLD_NAME);
         try {
-            texture = new Texture("grass");
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            RegionStorage storage = new RegionStorage(worldDirectory);
+            worldManager.setStorage(storage);
+            worldManager.setJournal(new EditJournal(worldDirectory, worldManager, storage));
+            autosave = new AutosaveService(worldManager, storage, AUTOSAVE_INTERVAL_TICKS);
+            Path backupDirectory = new GameDirectoryManager().getBackupsDirectory().toPath().resolve(WORLD_NAME);
+            backups = new BackupService(worldManager, storage, new WorldBackup(backupDirectory),
+                    BACKUP_INTERVAL_TICKS, BACKUPS_KEPT);
+        } catch (IOException e) {
+            System.err.println("Sauvegarde du monde désactivée: " + e.getMessage());
         }
-        worldManager = new WorldManager();
     }
 
+    public WorldManager getWorldManager() {
+        return worldManager;
+    }
 
     @Override
     public void initialize() {
-        setupBuffers();
+        if (RENDER_MODE == RenderMode.INSTANCED) {
+            cube = new InstancedCube();
+            worldManager.getLoadedChunk().forEachValue(this::queueInstances);
+        } else {
+            worldManager.addListener(meshScheduler);
+            worldManager.getLoadedChunk().forEachValue(meshScheduler::markDirty);
+        }
+        worldManager.addListener(this);
+        if (autosave != null) worldManager.addListener(autosave);
     }
 
-    private void setupBuffers() {
-        // Génération des buffers
-        VAO = glGenVertexArrays();
-        VBO = glGenBuffers();
-        EBO = glGenBuffers();
+    @Override
+    public void onChunkLoaded(Chunk chunk) {
+        // Maillé directement au niveau du zoom courant, plutôt qu'en détail complet puis simplifié
+        chunk.setMeshLod(zoomLod);
+        if (RENDER_MODE == RenderMode.INSTANCED) {
+            queueInstances(chunk);
+            queueNeighbourInstances(chunk);
+        }
+    }
 
-        glBindVertexArray(VAO);
+    @Override
+    public void onChunkChanged(Chunk chunk) {
+        if (RENDER_MODE == RenderMode.INSTANCED) queueInstances(chunk);
+    }
 
-        // Buffer des vertices
-        glBindBuffer(GL_ARRAY_BUFFER, VBO);
+    @Override
+    public void onChunkUnloaded(Chunk chunk) {
+        GpuMesh mesh = meshes.remove(chunk.getPosition().pack());
+        if (mesh != null) mesh.cleanup();
+        GpuInstances chunkInstances = instances.remove(chunk.getPosition().pack());
+        if (chunkInstances != null) chunkInstances.cleanup();
+        if (RENDER_MODE == RenderMode.INSTANCED) queueNeighbourInstances(chunk);
+    }
 
-        FloatBuffer vertexBuffer = org.lwjgl.BufferUtils.createFloatBuffer(120);
+    // Même drapeau que pour le maillage : un chunk n'est en file qu'une fois
+    private void queueInstances(Chunk chunk) {
+        if (chunk != null && chunk.markMeshDirty()) instanceQueue.add(chunk);
+    }
+
+    // Les blocs du bord des voisins deviennent visibles ou cachés
+    private void queueNeighbourInstances(Chunk chunk) {
+        int x = chunk.getPosition().x(), y = chunk.getPosition().y(), z = chunk.getPosition().z();
+        queueInstances(worldManager.getChunk(x + 1, y, z));
+        queueInstances(worldManager.getChunk(x - 1, y, z));
+        queueInstances(worldManager.getChunk(x, y + 1, z));
+        queueInstances(worldManager.getChunk(x, y - 1, z));
+        queueInstances(worldManager.getChunk(x, y, z + 1));
+        queueInstances(worldManager.getChunk(x, y, z - 1));
+    }
 
-        for (float[] face : cubeVertices) {
-            vertexBuffer.put(face);
+    // Reconstruit et envoie les tampons d'instances en attente, dans la limite par image
+    private void uploadInstances() {
+        Chunk chunk;
+        for (int i = 0; i < MAX_INSTANCE_BUILDS_PER_FRAME && (chunk = instanceQueue.poll()) != null; i++) {
+            chunk.clearMeshDirty();
+            long key = chunk.getPosition().pack();
+            if (worldManager.getLoadedChunk().get(key) != chunk) continue; // déchargé entre temps
+
+            instanceBuilder.build(chunk, worldManager, instanceBuffer);
+            GpuInstances chunkInstances = instances.get(key);
+            if (chunkInstances == null) {
+                chunkInstances = new GpuInstances(cube);
+                instances.put(key, chunkInstances);
+            }
+            chunkInstances.upload(instanceBuffer);
         }
-        vertexBuffer.flip();
-        glBufferData(GL_ARRAY_BUFFER, vertexBuffer, GL_STATIC_DRAW);
+    }
 
-        // Buffer des indices
-        glBindBuffer(GL_ELEMENT_ARRAY_BUFFER, EBO);
+    // Lance les maillages en attente et envoie au GPU ceux qui sont prêts, dans la limite par image
+    private void uploadMeshes() {
+        meshScheduler.update();
 
-        IntBuffer indexBuffer = org.lwjgl.BufferUtils.createIntBuffer(indices.length);
-        indexBuffer.put(indices).flip();
-        glBufferData(GL_ELEMENT_ARRAY_BUFFER, indexBuffer, GL_STATIC_DRAW);
+        ChunkMeshScheduler.MeshResult result;
+        for (int i = 0; i < MAX_UPLOADS_PER_FRAME && (result = meshScheduler.pollCompleted()) != null; i++) {
+            long key = result.chunk().getPosition().pack();
+            if (worldManager.getLoadedChunk().get(key) == result.chunk()) {
+                GpuMesh mesh = meshes.get(key);
+                if (mesh == null) {
+                    mesh = new GpuMesh();
+                    meshes.put(key, mesh);
+                }
+                mesh.upload(result.mesh(), result.lod());
+            }
+            meshScheduler.release(result);
+        }
+    }
 
-        // Attribut 0: Position (x, y, z)
-        glVertexAttribPointer(0, 3, GL_FLOAT, false, 5 * Float.BYTES, 0);
-        glEnableVertexAttribArray(0);
+    /**
+     * Niveau de détail d'un chunk : un par doublement du zoom (les blocs font alors moins d'un
+     * pixel à l'écran), plus un au-delà de LOD_DISTANCE chunks de la caméra.
+     */
+    private int selectLod(Chunk chunk, Camera camera) {
+        float dx = (chunk.getPosition().x() + 0.5f) * Chunk.SIZE - camera.getPosition().x;
+        float dz = (chunk.getPosition().z() + 0.5f) * Chunk.SIZE - camera.getPosition().z;
+        float limit = LOD_DISTANCE * Chunk.SIZE;
 
-        // Attribut 1 : Coordonnées texture (u, v)
-        glVertexAttribPointer(1, 2, GL_FLOAT, false, 5 * Float.BYTES, 3 * Float.BYTES);
-        glEnableVertexAttribArray(1);
+        int lod = zoomLod + (dx * dx + dz * dz > limit * limit ? 1 : 0);
+        return Math.min(lod, ChunkMesher.MAX_LOD);
+    }
 
-        glBindVertexArray(0);
+    // Demande un nouveau maillage aux chunks visibles dont le niveau de détail ne convient plus
+    private void updateLods(Camera camera) {
+        int level = 31 - Integer.numberOfLeadingZeros(Math.max(1, (int) camera.getZoom()));
+        zoomLod = Math.min(level, ChunkMesher.MAX_LOD);
+
+        for (int i = 0; i < visibility.getVisibleCount(); i++) {
+            Chunk chunk = visibility.getVisible(i);
+            int lod = selectLod(chunk, camera);
+            if (lod != chunk.getMeshLod()) {
+                chunk.setMeshLod(lod);
+                meshScheduler.markDirty(chunk);
+            }
+        }
+    }
+
+    public void updateHover(Camera camera, float ndcX, float ndcY) {
+        hasHover = raycaster.pick(camera.getProjection(), camera.getView(), ndcX, ndcY, worldManager, hovered);
+    }
+
+    // Bloc survolé, ou null
+    public VoxelRaycaster.Hit getHovered() {
+        return hasHover ? hovered : null;
     }
 
     @Override
     public void render(Camera camera) {
+        streamingService.update(camera.getPosition().x, camera.getPosition().z);
+        if (autosave != null) autosave.update();
+        if (backups != null) backups.update();
+        if (RENDER_MODE == RenderMode.INSTANCED) {
+            uploadInstances();
+        } else {
+            uploadMeshes();
+        }
+
         shader.use();
-        glBindVertexArray(VAO);
 
-        // Activer la texture
+        // Toutes les textures de blocs en une liaison : plus aucun changement de texture par chunk
+        glActiveTexture(GL_TEXTURE0);
+        glBindTexture(GL_TEXTURE_2D_ARRAY, textures.getTextureID());
+        shader.getUniforms().setInt("u_textures", 0);
+        glActiveTexture(GL_TEXTURE1);
+        glBindTexture(GL_TEXTURE_BUFFER, textures.getLayerTableID());
+        shader.getUniforms().setInt("u_blockLayers", 1);
         glActiveTexture(GL_TEXTURE0);
-        glBindTexture(GL_TEXTURE_2D, texture.getTextureID());
-        shader.getUniforms().setInt("u_texture", 0);
 
         // Créer et envoyer la matrice de projection isométrique
         shader.getUniforms().setMatrix4f("u_viewMatrix", camera.getView());
         shader.getUniforms().setMatrix4f("u_projectionMatrix", camera.getProjection());
+        shader.getUniforms().setInt("u_instanced", RENDER_MODE == RenderMode.INSTANCED ? 1 : 0);
+        shader.getUniforms().setInt("u_hasHover", hasHover ? 1 : 0);
+        if (hasHover) shader.getUniforms().setVec3("u_hoveredBlock", hovered.getX(), hovered.getY(), hovered.getZ());
 
-        // Parcourir tous les chunks chargés
-        worldManager.getLoadedChunk().forEach((chunkPos, chunk) -> chunk.getBlocks().forEach((LocalBlockCoord, Block) -> {
-
-            // Obtenir la position mondiale du bloc
-            LocalBlockCoord worldPos = Block.getPosition();
+        // Un seul appel de dessin par chunk dans le champ de la caméra et non enterré
+        visibility.update(camera.getProjection(), camera.getView(), worldManager);
+        for (int i = 0; i < visibility.getVisibleCount(); i++) {
+            renderChunk(visibility.getVisible(i));
+        }
+        // Les niveaux de détail ne concernent que les maillages
+        if (RENDER_MODE == RenderMode.MESHED) updateLods(camera);
 
-            // Matrice de transformation pour positionner le bloc
-            Matrix4f modelMatrix = new Matrix4f();
-            modelMatrix.translate(worldPos.x(), worldPos.y(), worldPos.z());
+        glBindVertexArray(0);
+        shader.stop();
+    }
 
-            shader.getUniforms().setMatrix4f("u_modelMatrix", modelMatrix);
+    private void renderChunk(Chunk chunk) {
+        long key = chunk.getPosition().pack();
+        GpuMesh mesh = null;
+        GpuInstances chunkInstances = null;
+        if (RENDER_MODE == RenderMode.INSTANCED) {
+            chunkInstances = instances.get(key);
+            if (chunkInstances == null) return; // pas encore construit
+        } else {
+            mesh = meshes.get(key);
+            if (mesh == null) return; // pas encore maillé
+        }
 
-            // Dessiner le cube
-            glDrawElements(GL_TRIANGLES, indices.length, GL_UNSIGNED_INT, 0);
-        }));
+        modelMatrix.translation(
+                chunk.getPosition().x() * Chunk.SIZE,
+                chunk.getPosition().y() * Chunk.SIZE,
+                chunk.getPosition().z() * Chunk.SIZE);
+        shader.getUniforms().setMatrix4f("u_modelMatrix", modelMatrix);
 
-        glBindVertexArray(0);
-        shader.stop();
+        if (chunkInstances != null) {
+            chunkInstances.draw();
+        } else {
+            mesh.draw();
+        }
     }
 
     @Override
     public void cleanup() {
-        shader.cleanUp();
-        texture.cleanUp();
-        glDeleteVertexArrays(VAO);
-        glDeleteBuffers(VBO);
-        glDeleteBuffers(EBO);
+        meshScheduler.shutdown();
+        closeWorldStorage();
+        ResourceManager.releaseShader("world");
+        textures.cleanUp();
+        meshes.forEachValue(GpuMesh::cleanup);
+        meshes.clear();
+        instances.forEachValue(GpuInstances::cleanup);
+        instances.clear();
+        if (cube != null) cube.cleanup();
+    }
+
+    private void closeWorldStorage() {
+        if (autosave != null) autosave.close();
+        if (backups != null) backups.close();
+        RegionStorage storage = worldManager.getStorage();
+        try {
+            EditJournal journal = worldManager.getJournal();
+            if (journal != null) journal.close();
+        } catch (IOException e) {
+            System.err.println("Erreur de fermeture du journal: " + e.getMessage());
+        } finally {
+            // Les régions sont toujours vidées et fermées, même si le journal a échoué
+            try {
+                if (storage != null) storage.close();
+            } catch (IOException e) {
+                System.err.println("Erreur de fermeture de la sauvegarde: " + e.getMessage());
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package systeme.startup;
 
 import org.lwjgl.BufferUtils;
+import game.render.loader.ResourceManager;
 import game.render.loader.Shader;
 import game.render.loader.Texture;
 
@@ -31,7 +32,7 @@ public class SplashRenderer {
     public SplashRenderer() {
         System.out.println("Creating splashShader...");
         try {
-            splashShader = new Shader("splash");
+            splashShader = ResourceManager.acquireShader("splash");
             System.out.println("Shader created successfully. Program ID: " + splashShader.programID);
         } catch (Exception e) {
             System.err.println("Shader creation failed: " + e.getMessage());
@@ -39,7 +40,7 @@ public class SplashRenderer {
         }
 
         try {
-            splashTexture = new Texture("splash");
+            splashTexture = ResourceManager.acquireTexture("splash");
         } catch (Exception e) {
             System.err.println("Texture creation failed: " + e.getMessage());
             throw new RuntimeException(e);
@@ -136,7 +137,7 @@ public class SplashRenderer {
         glDeleteBuffers(EBO);
         glDeleteBuffers(VBO);
 
-        splashShader.cleanUp();
-        splashTexture.cleanUp();
+        ResourceManager.releaseShader("splash");
+        ResourceManager.releaseTexture("splash");
     }
 }
\ No newline at end of file
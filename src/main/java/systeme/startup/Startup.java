@@ -1,5 +1,6 @@
 package systeme.startup;
 
+import game.render.loader.AssetPreloader;
 import systeme.filesystem.GameDirectoryManager;
 
 import java.util.concurrent.CompletableFuture;
@@ -33,6 +34,9 @@ public class Startup {
         System.out.println("Initializing Splash Renderer...");
         splashRenderer = new SplashRenderer();
 
+        // Lire et décoder les ressources du monde pendant l'écran de démarrage ; l'envoi à OpenGL se fera au lancement du jeu
+        AssetPreloader.preloadWorldAssets(executorService);
+
         System.out.println("Starting hardware detection...");
         // Créer SystemHardwareScanner après l'initialisation de SplashWindow
         HardwareScanner = new SystemHardwareScanner(splash);
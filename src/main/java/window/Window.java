@@ -157,6 +157,14 @@ public class Window {
         return vSync;
     }
 
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
     public long getWindowID() {
         return window; // La variable long window de la classe
     }
@@ -1,19 +1,37 @@
 #version 330 core
 
 in vec2 v_texCoord;
+flat in float v_layer;
 in vec3 v_worldPos;
+in vec3 v_blockPos;
+flat in vec3 v_normal;
+in vec2 v_light;
+in float v_occlusion;
 
-uniform sampler2D u_texture;
+// Toutes les textures de blocs, une couche par texture
+uniform sampler2DArray u_textures;
+// Bloc survolé par la souris, ignoré si u_hasHover vaut 0
+uniform vec3 u_hoveredBlock;
+uniform int u_hasHover;
 
 out vec4 fragColor;
 
 void main() {
     // Échantillonner la texture
-    vec4 texColor = texture(u_texture, v_texCoord);
+    vec4 texColor = texture(u_textures, vec3(v_texCoord, v_layer));
 
-    // Effet de lighting basique basé sur la hauteur
-    float lightIntensity = 0.7 + 0.3 * (v_worldPos.y + 1.0) / 2.0;
+    // Chaque niveau de lumière perdu assombrit de 20 %, sans descendre sous une lueur ambiante
+    float level = max(v_light.x, v_light.y);
+    float lightIntensity = max(pow(0.8, 15.0 * (1.0 - level)), 0.08);
 
     // Couleur finale avec éclairage
-    fragColor = vec4(texColor.rgb * lightIntensity, texColor.a);
+    vec3 color = texColor.rgb * lightIntensity * v_occlusion;
+
+    // Le fragment est sur une face : on recule d'un demi-bloc pour retrouver le bloc qui la porte
+    vec3 block = floor(v_blockPos - v_normal * 0.5);
+    if (u_hasHover != 0 && all(equal(block, u_hoveredBlock))) {
+        color = mix(color, vec3(1.0), 0.35);
+    }
+
+    fragColor = vec4(color, texColor.a);
 }
\ No newline at end of file
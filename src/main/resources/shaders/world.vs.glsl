@@ -2,22 +2,61 @@
 
 layout (location = 0) in vec3 a_position;
 layout (location = 1) in vec2 a_texCoord;
+layout (location = 2) in uint a_face;
+layout (location = 3) in uint a_light;
+layout (location = 4) in uint a_occlusion;
+// Rendu instancié : position du cube dans le chunk (4 bits par axe) et couche au-dessus
+layout (location = 5) in uint a_instance;
+layout (location = 6) in uint a_block;
 
 uniform mat4 u_projectionMatrix;
 uniform mat4 u_modelMatrix;
 uniform mat4 u_viewMatrix;
+// 1 si les sommets sont ceux du cube unité, déplacé par a_instance
+uniform int u_instanced;
+// Couche du tableau de textures de chaque identifiant de bloc (une entrée par bloc du registre)
+uniform isamplerBuffer u_blockLayers;
 
 out vec2 v_texCoord;
+flat out float v_layer;
 out vec3 v_worldPos;
+out vec3 v_blockPos;
+flat out vec3 v_normal;
+// Lumière du ciel et des blocs, de 0 à 1
+out vec2 v_light;
+// Assombrissement des coins, interpolé sur la face
+out float v_occlusion;
+
+// Luminosité d'un coin selon le nombre de voisins qui le bouchent (3 = dégagé)
+const float OCCLUSION[4] = float[4](0.45, 0.65, 0.82, 1.0);
+
+// Normales dans l'ordre de world.block.Face : UP, DOWN, EAST, WEST, SOUTH, NORTH
+const vec3 NORMALS[6] = vec3[6](
+    vec3(0, 1, 0), vec3(0, -1, 0),
+    vec3(1, 0, 0), vec3(-1, 0, 0),
+    vec3(0, 0, 1), vec3(0, 0, -1)
+);
 
 void main() {
     // Calculer la position mondiale
-    vec4 worldPos = u_viewMatrix * u_modelMatrix * vec4(a_position, 1.0);
+    vec3 position = a_position;
+    if (u_instanced != 0) {
+        position += vec3(a_instance & 15u, (a_instance >> 4u) & 15u, (a_instance >> 8u) & 15u);
+    }
+    vec4 modelPos = u_modelMatrix * vec4(position, 1.0);
+    vec4 worldPos = u_viewMatrix * modelPos;
     v_worldPos = worldPos.xyz;
+    v_blockPos = modelPos.xyz;
+    v_normal = NORMALS[a_face];
+    v_light = vec2(float(a_light >> 4u), float(a_light & 15u)) / 15.0;
+    v_occlusion = OCCLUSION[a_occlusion];
 
     // Appliquer la projection isométrique
     gl_Position = u_projectionMatrix * worldPos;
 
-    // Passer les coordonnées de texture
+    // Passer les coordonnées de texture et la couche du bloc
     v_texCoord = a_texCoord;
+    uint block = u_instanced != 0 ? a_instance >> 12u : a_block;
+    int entry = min(int(block), textureSize(u_blockLayers) - 1);
+    v_layer = float(texelFetch(u_blockLayers, entry).r);
 }
\ No newline at end of file